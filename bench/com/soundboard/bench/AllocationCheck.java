@@ -0,0 +1,178 @@
+package com.soundboard.bench;
+
+import com.soundboard.audio.AudioEngine;
+import com.soundboard.audio.AudioMixer;
+import com.soundboard.audio.Sample;
+import com.soundboard.audio.SampleCache;
+import com.soundboard.audio.SoundPlayer;
+import com.soundboard.audio.VoicePool;
+import com.soundboard.model.KitManager;
+import com.soundboard.model.SoundKit;
+import com.soundboard.model.SoundPad;
+import com.soundboard.sequencer.SequencerEngine;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+// 🧹 Vérifie qu'aucun octet n'est alloué par le thread de rendu : rendu d'un bloc,
+// évaluation des steps du séquenceur (samples présents ou manquants), déclenchement
+// d'un pad en cache et lecture d'un sample streamé.
+// Le préchauffage répète la mesure jusqu'à STABLE_ROUNDS mesures à zéro d'affilée (le JIT peut
+// allouer quelques octets en recompilant) ; un chemin qui n'y arrive pas échoue. Ensuite chaque
+// mesure doit être à zéro : un seul octet fait échouer le chemin. Seule exception, une mesure
+// pendant laquelle le JIT a compilé (désoptimisation : objets rematérialisés) est refaite,
+// au plus MAX_RETRIES fois ; la mesure refaite doit être à zéro.
+// Code de sortie 1 si un chemin alloue. À lancer depuis la racine du projet :
+//   java -cp <classes>:lib/jl1.0.1.jar com.soundboard.bench.AllocationCheck [blocks]
+// Les événements JFR sont compris dans la mesure quand un enregistrement est actif.
+public class AllocationCheck {
+    private static final int DEFAULT_BLOCKS = 10_000;
+    private static final int MIN_WARMUP_ROUNDS = 6;  // laisser le JIT compiler (escape analysis)
+    private static final int MAX_WARMUP_ROUNDS = 20;
+    private static final int STABLE_ROUNDS = 3;      // mesures à zéro d'affilée pour finir le préchauffage
+    private static final int ROUNDS = 3;
+    private static final int MAX_RETRIES = 3;
+    private static final String STREAMED_SAMPLE = "sounds/netflix.wav"; // ~6.7 s, au-delà de la tête
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final CompilationMXBean JIT = ManagementFactory.getCompilationMXBean();
+
+    public interface Block {
+        void run(int index) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BLOCKS;
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation measurement not supported by this JVM");
+            return;
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        SoundPlayer player = new SoundPlayer(new SampleCache(), false);
+        KitManager kitManager = new KitManager();
+        SoundKit kit = kitManager.getCurrentKit();
+        kitManager.preloadKit(kit, player.getCache(), null).join();
+        AudioMixer mixer = player.getEngine().getMixer();
+        byte[] out = new byte[mixer.getBlockSizeInBytes()];
+
+        // Résolus avant la mesure, comme le fait le séquenceur : le rendu ne touche pas au cache
+        Sample[] samples = new Sample[kit.getPadCount()];
+        for (int pad = 0; pad < samples.length; pad++) {
+            samples[pad] = player.getCache().getIfPresent(kit.getPad(pad).getFilePath());
+        }
+
+        boolean ok = true;
+        ok &= check("AudioMixer.render (kit, 16 voices)", blocks, i -> {
+            if (i % 8 == 0) {
+                mixer.trigger(samples[i / 8 % samples.length], 0.5f, i % mixer.getBlockFrames());
+            }
+            mixer.render(out);
+        });
+
+        // Un step par bloc, pattern plein : 9 déclenchements + rendu
+        SequencerEngine sequencer = new SequencerEngine(player);
+        sequencer.setCurrentKit(kit);
+        for (int pad = 0; pad < SequencerEngine.TRACK_COUNT; pad++) {
+            for (int step = 0; step < 16; step++) {
+                sequencer.setStep(pad, step, true);
+            }
+        }
+        sequencer.setStepListener(step -> {});
+        sequencer.setBpm(999);
+        sequencer.play();
+        ok &= check("SequencerEngine step + render", blocks, i -> mixer.render(out));
+        sequencer.stop();
+
+        // Samples introuvables : le premier coup de chaque piste signale le manque au thread
+        // de résolution, les suivants sont sautés (une erreur de chargement par pad)
+        SoundKit missing = new SoundKit("Missing", "Samples absents", "sounds/missing/");
+        for (int pad = 0; pad < SequencerEngine.TRACK_COUNT; pad++) {
+            missing.addPad(new SoundPad("Missing " + pad, "sounds/missing/" + pad + ".wav"));
+        }
+        sequencer.setCurrentKit(missing);
+        sequencer.play();
+        ok &= check("SequencerEngine step + render (cache miss)", blocks, i -> mixer.render(out));
+        sequencer.stop();
+        mixer.setBlockListener(null);
+
+        String path = kit.getPad(0).getFilePath();
+        ok &= check("SoundPlayer.play (cached) + render", blocks, i -> {
+            player.play(path, 0.8f, System.nanoTime());
+            mixer.render(out);
+        });
+
+        // Sample long : tête en mémoire, suite lue par le thread du streamer
+        SampleCache streamingCache = new SampleCache();
+        streamingCache.setStreamThresholdBytes(256 * 1024);
+        Sample streamed = streamingCache.get(STREAMED_SAMPLE);
+        ok &= check("AudioMixer.render (streamed sample)", blocks, i -> {
+            if (i % 200 == 0) {
+                mixer.trigger(streamed, 0.5f, 0);
+            }
+            mixer.render(out);
+        });
+
+        // Polyphonie saturée : vol de voix à chaque déclenchement
+        AudioMixer small = new AudioMixer(AudioEngine.SAMPLE_RATE, AudioEngine.BLOCK_FRAMES,
+                                          4, VoicePool.StealPolicy.QUIETEST);
+        Sample sample = player.getCache().getIfPresent(path);
+        ok &= check("AudioMixer.render (voice stealing)", blocks, i -> {
+            for (int t = 0; t < 4; t++) {
+                small.trigger(sample, 0.5f, t * 64);
+            }
+            small.render(out);
+        });
+
+        small.close();
+        player.shutdown();
+        System.out.println(ok ? "OK: no allocation on the audio paths" : "FAILED: allocation on the audio paths");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean check(String name, int blocks, Block block) throws Exception {
+        int stable = 0;
+        int warmupRounds = 0;
+        while (warmupRounds < MAX_WARMUP_ROUNDS && (warmupRounds < MIN_WARMUP_ROUNDS || stable < STABLE_ROUNDS)) {
+            stable = measure(blocks, block) == 0 ? stable + 1 : 0;
+            warmupRounds++;
+        }
+        if (stable < STABLE_ROUNDS) {
+            System.out.println(String.format("%-45s still allocating after %d warm-up rounds", name, warmupRounds));
+            return false;
+        }
+        long allocated = 0;
+        int allocatingRounds = 0;
+        int retries = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long compileTime = compilationTime();
+            long roundBytes = measure(blocks, block);
+            while (roundBytes != 0 && compilationTime() != compileTime && retries < MAX_RETRIES) {
+                retries++;
+                compileTime = compilationTime();
+                roundBytes = measure(blocks, block);
+            }
+            if (roundBytes != 0) allocatingRounds++;
+            allocated += roundBytes;
+        }
+        System.out.println(String.format("%-45s %10d bytes over %d blocks (%.2f bytes/block, %d/%d rounds allocating, %d retried)",
+                                         name, allocated, ROUNDS * blocks, (double) allocated / (ROUNDS * blocks),
+                                         allocatingRounds, ROUNDS, retries));
+        return allocated == 0;
+    }
+
+    // Temps de compilation cumulé du JIT (ms) ; -1 si non mesuré : aucune mesure n'est refaite
+    private static long compilationTime() {
+        return JIT != null && JIT.isCompilationTimeMonitoringSupported() ? JIT.getTotalCompilationTime() : -1;
+    }
+
+    // Octets alloués par le thread courant pendant 'blocks' blocs
+    private static long measure(int blocks, Block block) throws Exception {
+        long thread = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < blocks; i++) {
+            block.run(i);
+        }
+        return THREADS.getThreadAllocatedBytes(thread) - before;
+    }
+}
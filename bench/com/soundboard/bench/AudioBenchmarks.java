@@ -0,0 +1,151 @@
+package com.soundboard.bench;
+
+import com.soundboard.audio.AudioEngine;
+import com.soundboard.audio.AudioMixer;
+import com.soundboard.audio.Sample;
+import com.soundboard.audio.SampleCache;
+import com.soundboard.audio.SampleDecoder;
+import com.soundboard.audio.SoundPlayer;
+import com.soundboard.audio.VoicePool;
+import com.soundboard.model.KitManager;
+import com.soundboard.sequencer.SequencerEngine;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Benchmarks des chemins critiques audio. À lancer depuis la racine du projet :
+//   java -cp <classes>:lib/jl1.0.1.jar com.soundboard.bench.AudioBenchmarks [trigger|mix|decode|sequencer]
+// Ajouter --add-modules jdk.incubator.vector pour mesurer aussi les boucles Vector API.
+public class AudioBenchmarks {
+    private static final String SOUNDS_DIRECTORY = "sounds/";
+    private static final int[] VOICE_COUNTS = { 1, 8, 32, 128, 256 };
+
+    public static void main(String[] args) throws Exception {
+        String only = args.length > 0 ? args[0] : "";
+
+        if (only.isEmpty() || only.equals("trigger")) benchTrigger();
+        if (only.isEmpty() || only.equals("mix")) benchMixing();
+        if (only.isEmpty() || only.equals("decode")) benchDecode();
+        if (only.isEmpty() || only.equals("sequencer")) benchSequencer();
+    }
+
+    // SoundPlayer.play sur un sample déjà en cache : lookup + mise en file.
+    // Le mixer est vidé tous les 64 déclenchements (coût inclus, amorti).
+    private static void benchTrigger() throws Exception {
+        SoundPlayer player = new SoundPlayer(new SampleCache(), false); // sans ligne audio : aucun rendu concurrent
+        AudioMixer mixer = player.getEngine().getMixer();
+        String path = SOUNDS_DIRECTORY + "hihat.wav";
+        player.getCache().get(path);
+        byte[] block = new byte[mixer.getBlockSizeInBytes()];
+        int[] count = { 0 };
+
+        Bench.run("SoundPlayer.play (cached WAV)", () -> {
+            player.play(path);
+            if (++count[0] % 64 == 0) {
+                mixer.stopAll();
+                mixer.render(block);
+            }
+            return count[0];
+        });
+    }
+
+    // Coût d'un bloc de mixage selon le nombre de voix actives, boucles scalaires puis Vector API
+    private static void benchMixing() throws Exception {
+        SampleCache cache = new SampleCache();
+        cache.setStreamThresholdBytes(Long.MAX_VALUE); // mesurer le mixage, pas le disque
+        Sample sample = cache.get(SOUNDS_DIRECTORY + "netflix.wav");
+        Sample offHeap = cache.retain("bench", sample); // même sample, lu depuis le SampleStore
+        if (!AudioMixer.isVectorAvailable()) {
+            System.out.println("jdk.incubator.vector not available, scalar kernels only");
+        }
+
+        for (boolean vectorized : new boolean[] { false, true }) {
+            if (vectorized && !AudioMixer.isVectorAvailable()) continue;
+            for (Sample source : new Sample[] { sample, offHeap }) {
+                for (int voices : VOICE_COUNTS) {
+                    benchMixing(source, voices, vectorized);
+                }
+            }
+        }
+    }
+
+    private static void benchMixing(Sample sample, int voices, boolean vectorized) throws Exception {
+        AudioMixer mixer = new AudioMixer(AudioEngine.SAMPLE_RATE, AudioEngine.BLOCK_FRAMES,
+                                          voices, VoicePool.StealPolicy.OLDEST);
+        mixer.setVectorized(vectorized);
+        byte[] block = new byte[mixer.getBlockSizeInBytes()];
+
+        String source = sample.isOffHeap() ? "off-heap" : "heap";
+        Bench.run("AudioMixer.render " + mixer.getKernelName() + " " + source + " (" + voices + " voices)", () -> {
+            // Garder le nombre de voix constant quand les plus longues se terminent
+            int missing = voices - mixer.getActiveVoiceCount();
+            for (int i = 0; i < missing; i++) {
+                mixer.trigger(sample, 1.0f / voices);
+            }
+            mixer.render(block);
+            return block[0];
+        });
+        mixer.close();
+    }
+
+    // Débit de décodage (fichiers WAV et MP3 de sounds/), en ns par fichier et en Mo/s
+    private static void benchDecode() throws Exception {
+        for (String extension : new String[] { ".wav", ".mp3" }) {
+            List<Path> files = listSounds(extension);
+            if (files.isEmpty()) {
+                System.out.println("No " + extension + " file in " + SOUNDS_DIRECTORY + ", skipping decode benchmark");
+                continue;
+            }
+            long totalBytes = 0;
+            for (Path file : files) {
+                totalBytes += Files.size(file);
+            }
+
+            double nsPerPass = Bench.run("SampleDecoder.decode (" + files.size() + " " + extension + " files)", () -> {
+                long frames = 0;
+                for (Path file : files) {
+                    frames += SampleDecoder.decode(file.toString()).getFrameLength();
+                }
+                return frames;
+            });
+            System.out.println(String.format("  -> %.1f MB/s", totalBytes / (nsPerPass / 1e9) / (1024 * 1024)));
+        }
+    }
+
+    // Évaluation d'un step : un bloc contenant exactement un step, pattern plein
+    private static void benchSequencer() throws Exception {
+        SoundPlayer player = new SoundPlayer(new SampleCache(), false);
+        KitManager kitManager = new KitManager();
+        kitManager.preloadKit(kitManager.getCurrentKit(), player.getCache(), null).join();
+
+        SequencerEngine sequencer = new SequencerEngine(player);
+        sequencer.setCurrentKit(kitManager.getCurrentKit());
+        for (int pad = 0; pad < 9; pad++) {
+            for (int step = 0; step < 16; step++) {
+                sequencer.setStep(pad, step, true);
+            }
+        }
+        sequencer.play();
+
+        long framesPerStep = (long) Math.ceil(sequencer.getFramesPerStep());
+        long[] frame = { 0 };
+        Bench.run("SequencerEngine step evaluation (9 hits)", () -> {
+            // La file de déclenchement sature vite : on mesure l'évaluation, pas le mixage
+            sequencer.onBlockStart(frame[0], (int) framesPerStep);
+            frame[0] += framesPerStep;
+            return sequencer.getCurrentStep();
+        });
+    }
+
+    private static List<Path> listSounds(String extension) throws IOException {
+        try (Stream<Path> paths = Files.walk(Paths.get(SOUNDS_DIRECTORY))) {
+            return paths.filter(p -> p.toString().toLowerCase().endsWith(extension))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.soundboard.bench;
+
+// Mini harnais de micro-benchmark : warmup, itérations mesurées, ns/op moyen et meilleur.
+// Même découpage qu'un benchmark JMH (warmup / measurement / op) sans dépendance externe.
+public class Bench {
+    public static final int WARMUP_ITERATIONS = 5;
+    public static final int MEASURE_ITERATIONS = 10;
+    public static final long ITERATION_NANOS = 200_000_000L; // 200 ms
+
+    // Empêche le JIT d'éliminer les résultats des ops (équivalent du Blackhole JMH)
+    private static volatile long sink;
+
+    public interface Op {
+        long run() throws Exception;
+    }
+
+    public static void consume(long value) {
+        sink += value;
+    }
+
+    public static double run(String name, Op op) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(op);
+        }
+
+        double best = Double.MAX_VALUE;
+        double total = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            double nsPerOp = iteration(op);
+            best = Math.min(best, nsPerOp);
+            total += nsPerOp;
+        }
+        double average = total / MEASURE_ITERATIONS;
+        System.out.println(String.format("%-45s %12.1f ns/op  (best %.1f)", name, average, best));
+        return average;
+    }
+
+    private static double iteration(Op op) throws Exception {
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            consume(op.run());
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        return elapsed / (double) ops;
+    }
+}
@@ -0,0 +1,72 @@
+package com.soundboard.bench;
+
+import com.soundboard.audio.SampleCache;
+import com.soundboard.audio.SoundPlayer;
+import com.soundboard.model.KitManager;
+import com.soundboard.sequencer.PatternBouncer;
+import com.soundboard.sequencer.SequencerEngine;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 🎚️ Vérifie qu'un bounce de N tours joue exactement N × longueur steps : le dernier bloc rendu
+// déborde de la fin du pattern, le temps fort du tour suivant ne doit pas y être planifié.
+// Compte les événements JFR StepFired du séquenceur offline. Code de sortie 1 en cas d'écart.
+// À lancer depuis la racine du projet :
+//   java -cp <classes>:lib/jl1.0.1.jar com.soundboard.bench.BounceCheck
+public class BounceCheck {
+    private static final String STEP_FIRED = "com.soundboard.StepFired";
+
+    public static void main(String[] args) throws Exception {
+        SoundPlayer player = new SoundPlayer(new SampleCache(), false); // sans ligne audio : seul le bounce rend
+        KitManager kitManager = new KitManager();
+        SequencerEngine sequencer = new SequencerEngine(player);
+        sequencer.setCurrentKit(kitManager.getCurrentKit());
+        sequencer.setBpm(130); // 5088.46 frames par step : la fin du pattern tombe au milieu d'un bloc
+        for (int step = 0; step < 16; step += 4) {
+            sequencer.setStep(0, step, true);
+        }
+
+        boolean ok = true;
+        for (int loops : new int[] { 1, 3 }) {
+            ok &= check(player, sequencer, loops, true);
+            ok &= check(player, sequencer, loops, false);
+        }
+
+        sequencer.destroy();
+        player.shutdown();
+        System.out.println(ok ? "OK: bounces play exactly the requested steps" : "FAILED: bounce step count");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean check(SoundPlayer player, SequencerEngine sequencer, int loops, boolean includeTail)
+            throws Exception {
+        File output = File.createTempFile("bounce-check", ".wav");
+        Path dump = Files.createTempFile("bounce-check", ".jfr");
+        long steps = 0;
+        try (Recording recording = new Recording()) {
+            recording.enable(STEP_FIRED);
+            recording.start();
+            new PatternBouncer(player).bounce(sequencer, loops, includeTail, output);
+            recording.stop();
+            recording.dump(dump);
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                if (event.getEventType().getName().equals(STEP_FIRED)) {
+                    steps++;
+                }
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+            output.delete();
+        }
+
+        long expected = (long) loops * sequencer.getPatternLength();
+        System.out.println(String.format("%-45s %6d steps (expected %d)",
+                                         "Bounce " + loops + " loop(s)" + (includeTail ? " + tail" : ""),
+                                         steps, expected));
+        return steps == expected;
+    }
+}
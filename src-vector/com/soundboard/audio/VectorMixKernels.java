@@ -0,0 +1,87 @@
+package com.soundboard.audio;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.FloatBuffer;
+
+// ⚡ Version SIMD (jdk.incubator.vector). Mêmes opérations, dans le même ordre, que
+// ScalarMixKernels : le résultat est identique au bit près. Chargée par réflexion (MixKernels),
+// compilée à part avec --add-modules jdk.incubator.vector (source root src-vector/).
+class VectorMixKernels extends MixKernels {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int SCRATCH_FRAMES = 1024;
+    private static final ThreadLocal<float[][]> SCRATCH =
+            ThreadLocal.withInitial(() -> new float[2][SCRATCH_FRAMES]);
+
+    @Override
+    String getName() { return "vector-" + SPECIES.length() + "x32"; }
+
+    @Override
+    float mix(float[] srcLeft, float[] srcRight, int from,
+              float[] left, float[] right, int to, int count, float gain) {
+        FloatVector g = FloatVector.broadcast(SPECIES, gain);
+        FloatVector peaks = FloatVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector l = FloatVector.fromArray(SPECIES, srcLeft, from + i).mul(g);
+            FloatVector r = FloatVector.fromArray(SPECIES, srcRight, from + i).mul(g);
+            FloatVector.fromArray(SPECIES, left, to + i).add(l).intoArray(left, to + i);
+            FloatVector.fromArray(SPECIES, right, to + i).add(r).intoArray(right, to + i);
+            peaks = peaks.max(l.abs()).max(r.abs());
+        }
+        float peak = peaks.reduceLanes(VectorOperators.MAX);
+
+        for (; i < count; i++) {
+            float l = srcLeft[from + i] * gain;
+            float r = srcRight[from + i] * gain;
+            left[to + i] += l;
+            right[to + i] += r;
+            peak = Math.max(peak, Math.max(Math.abs(l), Math.abs(r)));
+        }
+        return peak;
+    }
+
+    // Hors heap : copie en bloc dans des tableaux de travail (par thread : le bounce rend en
+    // parallèle du moteur), puis même boucle que sur le heap. Aucune API dépendante de la
+    // version du JDK (fromByteBuffer a disparu en 19, fromMemorySegment n'existe pas en 17).
+    @Override
+    float mix(FloatBuffer srcLeft, FloatBuffer srcRight, int from,
+              float[] left, float[] right, int to, int count, float gain) {
+        float[][] scratch = SCRATCH.get();
+        float peak = 0f;
+        for (int done = 0; done < count; done += SCRATCH_FRAMES) {
+            int n = Math.min(SCRATCH_FRAMES, count - done);
+            float[] l = scratch[0];
+            float[] r = l;
+            srcLeft.get(from + done, l, 0, n);
+            if (srcRight != srcLeft) {
+                r = scratch[1];
+                srcRight.get(from + done, r, 0, n);
+            }
+            peak = Math.max(peak, mix(l, r, 0, left, right, to + done, n, gain));
+        }
+        return peak;
+    }
+
+    @Override
+    void master(float[] left, float[] right, int frames, float gain) {
+        clip(left, frames, gain);
+        clip(right, frames, gain);
+    }
+
+    private static void clip(float[] data, int frames, float gain) {
+        int bound = SPECIES.loopBound(frames);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector c = FloatVector.fromArray(SPECIES, data, i).mul(gain)
+                                       .max(-CLIP_INPUT).min(CLIP_INPUT);
+            c.mul(c.mul(c).mul(CLIP_CUBIC).add(1f)).intoArray(data, i);
+        }
+        for (; i < frames; i++) {
+            data[i] = softClip(data[i] * gain);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.soundboard;
+
+import com.soundboard.audio.MetricsExporter;
+import com.soundboard.audio.SampleCache;
+import com.soundboard.audio.SoundPlayer;
+import com.soundboard.model.KitManager;
+import com.soundboard.model.SoundKit;
+import com.soundboard.sequencer.PatternBouncer;
+import com.soundboard.sequencer.PatternFile;
+import com.soundboard.sequencer.SequencerEngine;
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Point d'entrée sans interface : joue un pattern sur la sortie audio ou le rend dans un WAV,
+// ou enregistre un kit en bundle. N'initialise ni AWT ni Swing (serveurs de rendu, CI).
+//   java com.soundboard.HeadlessApp --pattern beat.txt [--kit Metal] [--bpm 130] [--loops 4] [--out beat.wav]
+//   java com.soundboard.HeadlessApp --save-bundle Metal
+public class HeadlessApp {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        String patternPath = null;
+        String kitName = null;
+        String outPath = null;
+        String bundleKitName = null;
+        int bpm = 0;
+        int loops = 1;
+
+        // Chaque option est suivie de sa valeur
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (!option.startsWith("--")) {
+                usage("Unknown argument: " + option);
+                return;
+            }
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+                return;
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--pattern": patternPath = value; break;
+                case "--kit": kitName = value; break;
+                case "--out": outPath = value; break;
+                case "--save-bundle": bundleKitName = value; break;
+                case "--bpm": bpm = parseNumber(option, value); break;
+                case "--loops": loops = Math.max(1, parseNumber(option, value)); break;
+                default:
+                    usage("Unknown argument: " + option);
+                    return;
+            }
+        }
+        if (bundleKitName != null) {
+            saveBundle(bundleKitName);
+            return;
+        }
+        if (patternPath == null) {
+            usage("Missing --pattern");
+            return;
+        }
+
+        PatternFile patternFile = PatternFile.load(Paths.get(patternPath));
+        if (kitName == null) kitName = patternFile.getKitName();
+        if (bpm == 0) bpm = patternFile.getBpm();
+
+        // Kit
+        KitManager kitManager = new KitManager();
+        if (kitName != null && !kitManager.switchToKit(kitName)) {
+            System.err.println("Unknown kit: " + kitName + " (available: " + kitManager.getKitNames() + ")");
+            System.exit(1);
+        }
+        SoundKit kit = kitManager.getCurrentKit();
+        // Une piste par pad : une piste sans pad ne serait jamais jouée
+        int lastTrack = patternFile.getPattern().lastActiveTrack();
+        if (lastTrack >= kit.getPadCount()) {
+            System.err.println("Pattern track " + (lastTrack + 1) + " has no pad in kit " + kit.getName()
+                               + " (" + kit.getPadCount() + " pads)");
+            System.exit(1);
+        }
+
+        // Pas de ligne audio en mode rendu
+        boolean render = outPath != null;
+        SoundPlayer player = new SoundPlayer(new SampleCache(), !render);
+        kitManager.preloadKit(kit, player.getCache(), null).join();
+        MetricsExporter metrics = MetricsExporter.startFromSystemProperties(player);
+
+        SequencerEngine sequencer = new SequencerEngine(player);
+        sequencer.setCurrentKit(kit);
+        sequencer.setPattern(patternFile.getPattern());
+        if (bpm > 0) sequencer.setBpm(bpm);
+
+        if (render) {
+            new PatternBouncer(player).bounce(sequencer, loops, true, new File(outPath));
+        } else {
+            play(player, sequencer, loops);
+        }
+
+        if (metrics != null) metrics.stop();
+        player.shutdown();
+    }
+
+    // Kit enregistré dans kits/<nom>.sbk, chargé mappé (sans décodage) aux lancements suivants
+    private static void saveBundle(String kitName) {
+        KitManager kitManager = new KitManager();
+        SoundKit kit = kitManager.getKit(kitName);
+        if (kit == null) {
+            System.err.println("Unknown kit: " + kitName + " (available: " + kitManager.getKitNames() + ")");
+            System.exit(1);
+        }
+        if (!kitManager.saveKit(kit)) {
+            System.exit(1);
+        }
+    }
+
+    // Lecture temps réel : 'loops' tours de pattern puis attente de la fin des voix
+    private static void play(SoundPlayer player, SequencerEngine sequencer, int loops) throws InterruptedException {
+        if (!player.getEngine().isRunning()) {
+            System.err.println("No audio output available, use --out to render to a file");
+            System.exit(1);
+        }
+
+        int lastStep = sequencer.getPatternLength() - 1;
+        CountDownLatch remainingLoops = new CountDownLatch(loops);
+        sequencer.setStepListener(step -> {
+            if (step == lastStep) {
+                remainingLoops.countDown();
+            }
+        });
+
+        sequencer.play();
+        remainingLoops.await();
+        sequencer.stop();
+
+        // Laisser sonner la fin des samples (10 s max)
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (player.getEngine().getMixer().getActiveVoiceCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static int parseNumber(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            usage("Invalid number for " + option + ": " + value);
+            return 0;
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: HeadlessApp --pattern FILE [--kit NAME] [--bpm N] [--loops N] [--out FILE.wav]");
+        System.err.println("       HeadlessApp --save-bundle KIT");
+        System.exit(2);
+    }
+}
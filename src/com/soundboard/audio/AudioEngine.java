@@ -0,0 +1,190 @@
+package com.soundboard.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import jdk.jfr.EventType;
+import java.util.concurrent.locks.LockSupport;
+
+// Moteur audio : une seule SourceDataLine alimentée par un thread de rendu dédié.
+// La ligne est ouverte à la taille max, mais le rendu ne garde d'avance que targetBlocks
+// blocs : la latence s'adapte entre min et max sans rouvrir la ligne.
+public class AudioEngine {
+    public static final float SAMPLE_RATE = 44100f;
+    public static final int BLOCK_FRAMES = 256;      // ~5.8 ms à 44.1 kHz
+    public static final int LINE_BUFFER_BLOCKS = 4;  // avance de départ ~23 ms
+    public static final int DEFAULT_MIN_BUFFER_BLOCKS = 2;
+    public static final int DEFAULT_MAX_BUFFER_BLOCKS = 16;
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+
+    // Réduction de l'avance d'un bloc après ce délai sans incident
+    private static final long SHRINK_AFTER_NANOS = 5_000_000_000L;
+    private static final long MAX_WAIT_NANOS = 1_000_000;
+    // Vérifiés avant d'instancier l'événement : rien n'est alloué sans enregistrement JFR actif
+    private static final EventType UNDERRUN = EventType.getEventType(UnderrunEvent.class);
+    private static final EventType BUFFER_RESIZE = EventType.getEventType(BufferResizeEvent.class);
+
+    private final AudioMixer mixer;
+    private SourceDataLine line;
+    private Thread renderThread;
+    private volatile boolean running = false;
+
+    // Tampon adaptatif (en blocs)
+    private volatile int minBufferBlocks = DEFAULT_MIN_BUFFER_BLOCKS;
+    private volatile int maxBufferBlocks = DEFAULT_MAX_BUFFER_BLOCKS;
+    private volatile int targetBufferBlocks = LINE_BUFFER_BLOCKS;
+    private volatile long deadlineMissCount = 0;
+    private volatile long bufferResizeCount = 0;
+
+    public AudioEngine() {
+        this(VoicePool.DEFAULT_MAX_POLYPHONY, VoicePool.StealPolicy.OLDEST);
+    }
+
+    public AudioEngine(int maxPolyphony, VoicePool.StealPolicy stealPolicy) {
+        this.mixer = new AudioMixer(SAMPLE_RATE, BLOCK_FRAMES, maxPolyphony, stealPolicy);
+    }
+
+    public AudioMixer getMixer() { return mixer; }
+    public boolean isRunning() { return running; }
+
+    // Tampon adaptatif
+    public int getMinBufferBlocks() { return minBufferBlocks; }
+    public int getMaxBufferBlocks() { return maxBufferBlocks; }
+    public int getBufferFrames() { return targetBufferBlocks * mixer.getBlockFrames(); }
+    public long getDeadlineMissCount() { return deadlineMissCount; }
+    public long getBufferResizeCount() { return bufferResizeCount; }
+
+    public double getBufferLatencyMillis() {
+        return getBufferFrames() * 1000.0 / SAMPLE_RATE;
+    }
+
+    // Bornes de l'avance du rendu, en blocs. Le max est la taille de la ligne :
+    // l'augmenter ne prend effet qu'au prochain start().
+    public void setBufferBounds(int minBlocks, int maxBlocks) {
+        int min = Math.max(1, minBlocks);
+        int max = Math.max(min, maxBlocks);
+        this.minBufferBlocks = min;
+        this.maxBufferBlocks = max;
+        this.targetBufferBlocks = Math.max(min, Math.min(max, targetBufferBlocks));
+    }
+
+    public synchronized void start() throws LineUnavailableException {
+        if (running) return;
+
+        line = AudioSystem.getSourceDataLine(FORMAT);
+        line.open(FORMAT, mixer.getBlockSizeInBytes() * maxBufferBlocks);
+        line.start();
+        // La ligne peut avoir choisi une taille plus petite que demandée
+        int lineBlocks = line.getBufferSize() / mixer.getBlockSizeInBytes();
+        if (lineBlocks < maxBufferBlocks) {
+            setBufferBounds(Math.min(minBufferBlocks, lineBlocks), lineBlocks);
+        }
+
+        running = true;
+        renderThread = new Thread(this::renderLoop, "audio-render");
+        renderThread.setDaemon(true);
+        renderThread.setPriority(Thread.MAX_PRIORITY);
+        renderThread.start();
+    }
+
+    // Arrêt définitif : le mixer est fermé même si la ligne n'a jamais été ouverte (mode sans sortie)
+    public synchronized void stop() {
+        if (running) {
+            running = false;
+            try {
+                renderThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            line.stop();
+            line.close();
+            renderThread = null;
+            line = null;
+        }
+        mixer.close();
+    }
+
+    private void renderLoop() {
+        byte[] block = new byte[mixer.getBlockSizeInBytes()];
+        int frameSize = FORMAT.getFrameSize();
+        int blockFrames = mixer.getBlockFrames();
+        int lineFrames = line.getBufferSize() / frameSize;
+        boolean primed = false;
+        long lastIncidentNanos = System.nanoTime();
+
+        while (running) {
+            int queued = waitForRoom(frameSize, blockFrames, lineFrames);
+            long now = System.nanoTime();
+
+            if (primed) {
+                if (queued <= 0) {
+                    // Ligne vide alors qu'elle a déjà joué : la carte son a manqué de données
+                    mixer.getMetrics().recordUnderrun();
+
+                    if (UNDERRUN.isEnabled()) {
+                        UnderrunEvent event = new UnderrunEvent();
+                        if (event.shouldCommit()) {
+                            event.bufferFrames = getBufferFrames();
+                            event.framePosition = mixer.getFramePosition();
+                            event.commit();
+                        }
+                    }
+                    resize(targetBufferBlocks * 2, "underrun");
+                    lastIncidentNanos = now;
+                } else if (queued < blockFrames) {
+                    // Moins d'un bloc d'avance au réveil : échéance presque manquée
+                    deadlineMissCount++;
+                    resize(targetBufferBlocks + 1, "deadline miss");
+                    lastIncidentNanos = now;
+                } else if (now - lastIncidentNanos > SHRINK_AFTER_NANOS) {
+                    resize(targetBufferBlocks - 1, "stable");
+                    lastIncidentNanos = now;
+                }
+            }
+            mixer.setOutputLatencyFrames(queued);
+
+            mixer.render(block);
+            long renderNanos = System.nanoTime() - now;
+            if (primed && renderNanos > queued * 1e9 / SAMPLE_RATE / 2) {
+                // Le rendu a consommé plus de la moitié de l'avance : la prochaine fois, il manquera
+                deadlineMissCount++;
+                resize(targetBufferBlocks + 1, "slow render");
+                lastIncidentNanos = System.nanoTime();
+            }
+            line.write(block, 0, block.length);
+            primed = true;
+        }
+    }
+
+    // Attend que l'avance de la ligne laisse la place d'un bloc sous la cible.
+    // Retourne le nombre de frames en attente dans la ligne.
+    private int waitForRoom(int frameSize, int blockFrames, int lineFrames) {
+        while (true) {
+            int queued = lineFrames - line.available() / frameSize;
+            int excess = queued + blockFrames - targetBufferBlocks * blockFrames;
+            if (excess <= 0 || !running) {
+                return Math.max(0, queued);
+            }
+            long excessNanos = (long) (excess * 1e9 / SAMPLE_RATE);
+            LockSupport.parkNanos(Math.min(MAX_WAIT_NANOS, Math.max(excessNanos / 2, 50_000)));
+        }
+    }
+
+    private void resize(int blocks, String reason) {
+        int target = Math.max(minBufferBlocks, Math.min(maxBufferBlocks, blocks));
+        if (target == targetBufferBlocks) return;
+
+        if (BUFFER_RESIZE.isEnabled()) {
+            BufferResizeEvent event = new BufferResizeEvent();
+            if (event.shouldCommit()) {
+                event.fromFrames = getBufferFrames();
+                event.toFrames = target * mixer.getBlockFrames();
+                event.reason = reason;
+                event.commit();
+            }
+        }
+        targetBufferBlocks = target;
+        bufferResizeCount++;
+    }
+}
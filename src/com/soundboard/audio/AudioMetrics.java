@@ -0,0 +1,51 @@
+package com.soundboard.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mesures du moteur audio : latences déclenchement → sortie, gigue des steps, underruns
+public class AudioMetrics {
+    // Pad joué à la main : de l'appui (SoundPlayer.play) jusqu'à l'arrivée dans la ligne de sortie
+    private final LatencyHistogram padLatency = new LatencyHistogram();
+    // Step du séquenceur : de la planification jusqu'à la sortie (lookahead effectif)
+    private final LatencyHistogram stepLatency = new LatencyHistogram();
+    // Écart entre deux steps consécutifs et l'intervalle théorique
+    private final LatencyHistogram stepJitter = new LatencyHistogram();
+    private final AtomicLong underrunCount = new AtomicLong();
+
+    private long lastStepOutputNanos = 0; // thread de rendu uniquement
+
+    public LatencyHistogram getPadLatency() { return padLatency; }
+    public LatencyHistogram getStepLatency() { return stepLatency; }
+    public LatencyHistogram getStepJitter() { return stepJitter; }
+    public long getUnderrunCount() { return underrunCount.get(); }
+
+    void recordPadLatency(long triggerNanos, long outputNanos) {
+        padLatency.record(outputNanos - triggerNanos);
+    }
+
+    void recordUnderrun() {
+        underrunCount.incrementAndGet();
+    }
+
+    // Appelé par le séquenceur pour chaque step, sur le thread de rendu
+    public void recordStep(long scheduledNanos, long outputNanos, double nominalStepNanos) {
+        stepLatency.record(outputNanos - scheduledNanos);
+        if (lastStepOutputNanos != 0) {
+            long interval = outputNanos - lastStepOutputNanos;
+            stepJitter.record(Math.abs(interval - (long) nominalStepNanos));
+        }
+        lastStepOutputNanos = outputNanos;
+    }
+
+    // Nouveau départ du séquenceur : pas de gigue entre la fin d'une lecture et la suivante
+    public void resetStepClock() {
+        lastStepOutputNanos = 0;
+    }
+
+    public void reset() {
+        padLatency.reset();
+        stepLatency.reset();
+        stepJitter.reset();
+        underrunCount.set(0);
+    }
+}
@@ -0,0 +1,190 @@
+package com.soundboard.audio;
+
+import jdk.jfr.EventType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mixe toutes les voix actives dans un bloc de taille fixe (16 bits stéréo little-endian).
+// Chaîne : gain du pad (par voix) → somme → gain master → soft clip → 16 bits.
+public class AudioMixer {
+    public static final int TRIGGER_QUEUE_CAPACITY = 256;
+    // Vérifié avant d'instancier l'événement : rien n'est alloué sans enregistrement JFR actif
+    private static final EventType PAD_TRIGGER = EventType.getEventType(PadTriggerEvent.class);
+
+    private final float sampleRate;
+    private final int blockFrames;
+
+    // Déclenchements depuis n'importe quel thread, transformés en voix par le thread de rendu
+    private final TriggerQueue triggers = new TriggerQueue(TRIGGER_QUEUE_CAPACITY);
+    private final VoicePool voicePool;
+    private volatile boolean stopRequested = false;
+    private final AtomicLong droppedTriggerCount = new AtomicLong();
+    private final AudioMetrics metrics = new AudioMetrics();
+    private volatile MixKernels kernels = MixKernels.preferred();
+    private volatile float masterGain = 1.0f;
+
+    private final float[] mixLeft;
+    private final float[] mixRight;
+
+    // Horloge en frames : position du début du prochain bloc rendu
+    private volatile long framePosition = 0;
+    private volatile long blockStartNanos = 0;
+    // Frames déjà en attente dans la ligne de sortie quand le bloc est rendu (0 en offline)
+    private volatile int outputLatencyFrames = 0;
+    private volatile BlockListener blockListener;
+
+    // Appelé par le thread de rendu au début de chaque bloc, avant le mixage.
+    // Les déclenchements faits pendant l'appel sont joués dans ce même bloc.
+    public interface BlockListener {
+        void onBlockStart(long blockStartFrame, int blockFrames);
+    }
+
+    public AudioMixer(float sampleRate, int blockFrames) {
+        this(sampleRate, blockFrames, VoicePool.DEFAULT_MAX_POLYPHONY, VoicePool.StealPolicy.OLDEST);
+    }
+
+    public AudioMixer(float sampleRate, int blockFrames, int maxPolyphony, VoicePool.StealPolicy stealPolicy) {
+        this.sampleRate = sampleRate;
+        this.blockFrames = blockFrames;
+        this.voicePool = new VoicePool(maxPolyphony, stealPolicy);
+        this.mixLeft = new float[blockFrames];
+        this.mixRight = new float[blockFrames];
+    }
+
+    // Getters
+    public float getSampleRate() { return sampleRate; }
+    public int getBlockFrames() { return blockFrames; }
+    public int getBlockSizeInBytes() { return blockFrames * 4; }
+    public VoicePool getVoicePool() { return voicePool; }
+    public SampleStreamer getStreamer() { return voicePool.getStreamer(); }
+    public int getActiveVoiceCount() { return voicePool.getActiveCount(); }
+    public long getDroppedTriggerCount() { return droppedTriggerCount.get(); }
+    public long getFramePosition() { return framePosition; }
+    public AudioMetrics getMetrics() { return metrics; }
+    public int getOutputLatencyFrames() { return outputLatencyFrames; }
+    public float getMasterGain() { return masterGain; }
+    public boolean isVectorized() { return kernels != MixKernels.scalar(); }
+    public String getKernelName() { return kernels.getName(); }
+
+    public void setMasterGain(float gain) {
+        this.masterGain = Math.max(0f, gain);
+    }
+
+    // Bascule à chaud entre les boucles Vector API et scalaires (même résultat au bit près).
+    // Sans le module jdk.incubator.vector, reste en scalaire et retourne false.
+    public boolean setVectorized(boolean vectorized) {
+        MixKernels vector = MixKernels.vector();
+        kernels = vectorized && vector != null ? vector : MixKernels.scalar();
+        return isVectorized() == vectorized;
+    }
+
+    public static boolean isVectorAvailable() {
+        return MixKernels.vector() != null;
+    }
+
+    void setOutputLatencyFrames(int frames) {
+        this.outputLatencyFrames = frames;
+    }
+
+    // Heure estimée (System.nanoTime) à laquelle une frame du bloc en cours sort de la ligne
+    public long estimateOutputNanos(int frameOffset) {
+        return blockStartNanos + (long) ((outputLatencyFrames + frameOffset) * 1e9 / sampleRate);
+    }
+
+    public void setBlockListener(BlockListener listener) {
+        this.blockListener = listener;
+    }
+
+    // Appelable depuis l'EDT : mise en file sans verrou, le son part au prochain bloc
+    public void trigger(Sample sample, float gain) {
+        trigger(sample, gain, 0);
+    }
+
+    // frameOffset : position de départ dans le prochain bloc (placement à l'échantillon près)
+    public boolean trigger(Sample sample, float gain, int frameOffset) {
+        return trigger(sample, gain, frameOffset, 0);
+    }
+
+    // triggerNanos : instant de l'action utilisateur (System.nanoTime), 0 pour un step planifié.
+    // La référence prise sur le sample passe à la voix, qui la rend à la fin de la lecture.
+    // Un sample déjà retiré (kit déchargé, fichier rechargé) n'est pas joué.
+    // Retourne false si le coup n'est pas parti (sample retiré ou file pleine).
+    public boolean trigger(Sample sample, float gain, int frameOffset, long triggerNanos) {
+        if (!sample.acquire()) {
+            return false;
+        }
+        int offset = Math.max(0, Math.min(blockFrames - 1, frameOffset));
+        if (!triggers.offer(sample, gain, offset, triggerNanos)) {
+            sample.release();
+            droppedTriggerCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    // Plus aucun rendu après cet appel (voir VoicePool.close)
+    public void close() {
+        voicePool.close();
+    }
+
+    public void stopAll() {
+        // Les voix sont libérées par le thread de rendu au prochain bloc
+        stopRequested = true;
+    }
+
+    // Thread de rendu : déclenchement sorti de la file
+    void startVoice(Sample sample, float gain, int frameOffset, long triggerNanos) {
+        voicePool.allocate(sample, gain, frameOffset);
+        if (triggerNanos != 0) {
+            long outputNanos = estimateOutputNanos(frameOffset);
+            metrics.recordPadLatency(triggerNanos, outputNanos);
+
+            if (PAD_TRIGGER.isEnabled()) {
+                PadTriggerEvent event = new PadTriggerEvent();
+                if (event.shouldCommit()) {
+                    event.sample = sample.getFilePath();
+                    event.gain = gain;
+                    event.latency = outputNanos - triggerNanos;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    // Rend un bloc complet dans out (getBlockSizeInBytes() octets)
+    public void render(byte[] out) {
+        blockStartNanos = System.nanoTime();
+
+        if (stopRequested) {
+            stopRequested = false;
+            triggers.clear();
+            voicePool.releaseAll();
+        }
+
+        BlockListener listener = blockListener;
+        if (listener != null) {
+            listener.onBlockStart(framePosition, blockFrames);
+        }
+        triggers.drainTo(this);
+
+        MixKernels k = kernels;
+        Arrays.fill(mixLeft, 0f);
+        Arrays.fill(mixRight, 0f);
+        voicePool.mix(k, mixLeft, mixRight, blockFrames);
+        k.master(mixLeft, mixRight, blockFrames, masterGain);
+
+        for (int i = 0; i < blockFrames; i++) {
+            writeSample(out, 4 * i, mixLeft[i]);
+            writeSample(out, 4 * i + 2, mixRight[i]);
+        }
+        framePosition += blockFrames;
+    }
+
+    // Après le soft clip, value est déjà dans [-1, 1]
+    private static void writeSample(byte[] out, int offset, float value) {
+        int s = (int) (value * 32767f);
+        out[offset] = (byte) s;
+        out[offset + 1] = (byte) (s >> 8);
+    }
+}
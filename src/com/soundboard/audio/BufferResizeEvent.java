@@ -0,0 +1,23 @@
+package com.soundboard.audio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.soundboard.BufferResize")
+@Label("Output Buffer Resize")
+@Category({ "Soundboard", "Audio" })
+@Description("Render-ahead target of the output line changed after an underrun, a deadline miss or a stable period")
+@StackTrace(false)
+class BufferResizeEvent extends jdk.jfr.Event {
+    @Label("From Frames")
+    int fromFrames;
+
+    @Label("To Frames")
+    int toFrames;
+
+    @Label("Reason")
+    String reason;
+}
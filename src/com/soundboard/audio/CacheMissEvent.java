@@ -0,0 +1,28 @@
+package com.soundboard.audio;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.soundboard.SampleCacheMiss")
+@Label("Sample Cache Miss")
+@Category({ "Soundboard", "Audio" })
+@Description("Sample not in the cache, duration covers decoding from disk")
+@StackTrace(false)
+class CacheMissEvent extends jdk.jfr.Event {
+    @Label("File")
+    String file;
+
+    @Label("Heap Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Streamed")
+    boolean streamed;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,75 @@
+package com.soundboard.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histogramme de latences en nanosecondes, sans allocation à l'enregistrement.
+// Buckets log-linéaires : 32 sous-buckets par puissance de 2, soit ~3 % d'erreur relative.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() { return totalCount.get(); }
+    public long getMax() { return maxValue.get(); }
+
+    // Valeur sous laquelle se trouvent 'percentile' % des mesures (borne haute du bucket)
+    public long getPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        maxValue.set(0);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram{count=%d, p50=%.1fus, p99=%.1fus, max=%.1fus}",
+                           getCount(), getPercentile(50) / 1000.0, getPercentile(99) / 1000.0, getMax() / 1000.0);
+    }
+}
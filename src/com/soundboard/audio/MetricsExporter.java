@@ -0,0 +1,143 @@
+package com.soundboard.audio;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Export périodique des métriques du moteur vers un fichier local (JSON lines ou CSV)
+public class MetricsExporter {
+    public static final String FILE_PROPERTY = "soundboard.metrics.file";
+    public static final String PERIOD_PROPERTY = "soundboard.metrics.periodMs";
+    public static final long DEFAULT_PERIOD_MS = 5000;
+
+    public enum Format { JSON, CSV }
+
+    private static final String CSV_HEADER = "timestamp,activeVoices,underruns,droppedTriggers,stolenVoices,"
+            + "cacheHits,cacheMisses,cacheEvictions,"
+            + "padCount,padP50Us,padP99Us,padMaxUs,"
+            + "stepCount,stepP50Us,stepP99Us,stepMaxUs,"
+            + "jitterP50Us,jitterP99Us,jitterMaxUs,"
+            + "bufferFrames,bufferLatencyMs,deadlineMisses";
+
+    private final SoundPlayer player;
+    private final Path file;
+    private final Format format;
+    private final long periodMillis;
+    private ScheduledExecutorService scheduler;
+
+    public MetricsExporter(SoundPlayer player, Path file, Format format, long periodMillis) {
+        this.player = player;
+        this.file = file;
+        this.format = format;
+        this.periodMillis = Math.max(100, periodMillis);
+    }
+
+    // Démarre l'export si -Dsoundboard.metrics.file=... est défini (format déduit de l'extension)
+    public static MetricsExporter startFromSystemProperties(SoundPlayer player) {
+        String fileName = System.getProperty(FILE_PROPERTY);
+        if (fileName == null || fileName.isEmpty()) {
+            return null;
+        }
+        Format format = fileName.toLowerCase().endsWith(".csv") ? Format.CSV : Format.JSON;
+        long period = Long.getLong(PERIOD_PROPERTY, DEFAULT_PERIOD_MS);
+
+        MetricsExporter exporter = new MetricsExporter(player, Paths.get(fileName), format, period);
+        exporter.start();
+        return exporter;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-exporter");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::dumpQuietly, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        System.out.println("Exporting audio metrics to " + file + " every " + periodMillis + " ms");
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        scheduler = null;
+        dumpQuietly();
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException e) {
+            System.err.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+
+    // Ajoute une ligne au fichier avec l'état courant
+    public synchronized void dump() throws IOException {
+        boolean writeHeader = format == Format.CSV && (!Files.exists(file) || Files.size(file) == 0);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (writeHeader) {
+                out.write(CSV_HEADER);
+                out.write('\n');
+            }
+            out.write(format == Format.CSV ? toCsv() : toJson());
+            out.write('\n');
+        }
+    }
+
+    public String toJson() {
+        AudioEngine engine = player.getEngine();
+        AudioMixer mixer = engine.getMixer();
+        AudioMetrics metrics = mixer.getMetrics();
+        SampleCache cache = player.getCache();
+        return String.format(Locale.ROOT,
+                "{\"timestamp\":%d,\"activeVoices\":%d,\"underruns\":%d,\"droppedTriggers\":%d,\"stolenVoices\":%d,"
+                + "\"cacheHits\":%d,\"cacheMisses\":%d,\"cacheEvictions\":%d,"
+                + "\"padLatency\":%s,\"stepLatency\":%s,\"stepJitter\":%s,"
+                + "\"bufferFrames\":%d,\"bufferLatencyMs\":%.2f,\"deadlineMisses\":%d}",
+                System.currentTimeMillis(), mixer.getActiveVoiceCount(), metrics.getUnderrunCount(),
+                mixer.getDroppedTriggerCount(), mixer.getVoicePool().getStolenCount(),
+                cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount(),
+                histogramJson(metrics.getPadLatency()), histogramJson(metrics.getStepLatency()),
+                histogramJson(metrics.getStepJitter()),
+                engine.getBufferFrames(), engine.getBufferLatencyMillis(), engine.getDeadlineMissCount());
+    }
+
+    public String toCsv() {
+        AudioEngine engine = player.getEngine();
+        AudioMixer mixer = engine.getMixer();
+        AudioMetrics metrics = mixer.getMetrics();
+        SampleCache cache = player.getCache();
+        LatencyHistogram pad = metrics.getPadLatency();
+        LatencyHistogram step = metrics.getStepLatency();
+        LatencyHistogram jitter = metrics.getStepJitter();
+        return String.format(Locale.ROOT,
+                "%d,%d,%d,%d,%d,%d,%d,%d,%d,%.1f,%.1f,%.1f,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%d,%.2f,%d",
+                System.currentTimeMillis(), mixer.getActiveVoiceCount(), metrics.getUnderrunCount(),
+                mixer.getDroppedTriggerCount(), mixer.getVoicePool().getStolenCount(),
+                cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount(),
+                pad.getCount(), micros(pad.getPercentile(50)), micros(pad.getPercentile(99)), micros(pad.getMax()),
+                step.getCount(), micros(step.getPercentile(50)), micros(step.getPercentile(99)), micros(step.getMax()),
+                micros(jitter.getPercentile(50)), micros(jitter.getPercentile(99)), micros(jitter.getMax()),
+                engine.getBufferFrames(), engine.getBufferLatencyMillis(), engine.getDeadlineMissCount());
+    }
+
+    private static String histogramJson(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "{\"count\":%d,\"p50Us\":%.1f,\"p99Us\":%.1f,\"maxUs\":%.1f}",
+                histogram.getCount(), micros(histogram.getPercentile(50)),
+                micros(histogram.getPercentile(99)), micros(histogram.getMax()));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,76 @@
+package com.soundboard.audio;
+
+import java.nio.FloatBuffer;
+
+// Boucles internes du mixage : gain + addition d'une voix, gain master + soft clip.
+// Deux implémentations au résultat identique au bit près : scalaire (toujours disponible)
+// et Vector API (jdk.incubator.vector, chargée seulement si le module est présent :
+// lancer la JVM avec --add-modules jdk.incubator.vector).
+// La version Vector API est dans src-vector/, compilée à part (src/ se compile avec un javac
+// simple, sans le module incubator) :
+//   javac -cp lib/jl1.0.1.jar -d out $(find src -name '*.java')
+//   javac --add-modules jdk.incubator.vector -cp out -d out $(find src-vector -name '*.java')
+// -Dsoundboard.vector=false force la version scalaire.
+abstract class MixKernels {
+    static final String VECTOR_PROPERTY = "soundboard.vector";
+
+    // Soft clip cubique y = c - 4c³/27 sur c = clamp(x, -1.5, 1.5) : pente 1 en 0, ±1 en ±1.5
+    static final float CLIP_INPUT = 1.5f;
+    static final float CLIP_CUBIC = -4f / 27f;
+
+    private static final MixKernels SCALAR = new ScalarMixKernels();
+    private static final MixKernels VECTOR = loadVector();
+
+    static MixKernels scalar() { return SCALAR; }
+
+    // null si la Vector API n'est pas disponible dans cette JVM
+    static MixKernels vector() { return VECTOR; }
+
+    static MixKernels preferred() {
+        boolean wanted = Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"));
+        return wanted && VECTOR != null ? VECTOR : SCALAR;
+    }
+
+    private static MixKernels loadVector() {
+        try {
+            // Par réflexion : sans le module incubator, la classe ne peut pas être chargée
+            return (MixKernels) Class.forName("com.soundboard.audio.VectorMixKernels")
+                                     .getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    abstract String getName();
+
+    // dst += src * gain sur count frames, retourne le pic absolu ajouté
+    abstract float mix(float[] srcLeft, float[] srcRight, int from,
+                       float[] left, float[] right, int to, int count, float gain);
+
+    // Gain master puis soft clip, en place
+    abstract void master(float[] left, float[] right, int frames, float gain);
+
+    // Samples hors heap (bundle mappé, SampleStore) : vues float des buffers little-endian
+    float mix(FloatBuffer srcLeft, FloatBuffer srcRight, int from,
+              float[] left, float[] right, int to, int count, float gain) {
+        float peak = 0f;
+        for (int i = 0; i < count; i++) {
+            float l = srcLeft.get(from + i) * gain;
+            float r = srcRight.get(from + i) * gain;
+            left[to + i] += l;
+            right[to + i] += r;
+            peak = Math.max(peak, Math.max(Math.abs(l), Math.abs(r)));
+        }
+        return peak;
+    }
+
+    static float softClip(float x) {
+        float c = Math.max(-CLIP_INPUT, Math.min(CLIP_INPUT, x));
+        return c * (1f + CLIP_CUBIC * (c * c));
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
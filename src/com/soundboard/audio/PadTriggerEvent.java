@@ -0,0 +1,28 @@
+package com.soundboard.audio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// 🔍 Événements JFR : coût quasi nul quand aucun enregistrement n'est actif.
+//   java -XX:StartFlightRecording=filename=soundboard.jfr ...
+@Name("com.soundboard.PadTrigger")
+@Label("Pad Trigger")
+@Category({ "Soundboard", "Audio" })
+@Description("Pad pressed by the user, emitted when its voice starts in the render thread")
+@StackTrace(false)
+class PadTriggerEvent extends jdk.jfr.Event {
+    @Label("Sample")
+    String sample;
+
+    @Label("Gain")
+    float gain;
+
+    @Label("Press To Output")
+    @Description("Time from the press to the estimated output of the first frame")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
@@ -0,0 +1,172 @@
+package com.soundboard.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// PCM d'un fichier audio au format du moteur, gardé en mémoire par le SampleCache :
+// stéréo planaire (un tableau par canal), floats dans [-1, 1], à AudioEngine.SAMPLE_RATE.
+// La conversion est faite une fois au chargement (SampleConverter), jamais au rendu.
+// Les données sont soit sur le heap (décodage), soit hors heap : mappées depuis un bundle
+// de kit ou copiées dans le SampleStore (floats little-endian, lus par le rendu sans copie).
+// Un sample long est « streamé » : seule la tête est en mémoire, la suite est lue
+// depuis le disque pendant la lecture par le SampleStreamer.
+// Chaque lecture (déclenchement en file, voix, calcul de forme d'onde) prend une référence :
+// un sample retiré par le SampleStore n'en accepte plus, et sa mémoire hors heap n'est rendue
+// qu'une fois la dernière relâchée.
+public class Sample {
+    private static final int RETIRED = 1 << 30;
+    private static final int FREED = -1;
+
+    private final String filePath;
+    private final float[] left;   // null si hors heap
+    private final float[] right;
+    private final ByteBuffer leftBuffer;  // null si sur le heap
+    private final ByteBuffer rightBuffer;
+    // Vues float des buffers hors heap (créées une fois : le rendu lit par copie en bloc)
+    private final FloatBuffer leftFloats;
+    private final FloatBuffer rightFloats;
+    private final int headFrames;
+    private final int totalFrames;
+    // Nombre de lectures en cours, + RETIRED une fois retiré, FREED une fois la mémoire rendue
+    private final AtomicInteger readers = new AtomicInteger();
+
+    public Sample(String filePath, float[] left, float[] right) {
+        this(filePath, left, right, left.length);
+    }
+
+    // Sample streamé : left/right contiennent les premières frames, totalFrames la durée complète
+    public Sample(String filePath, float[] left, float[] right, int totalFrames) {
+        if (left.length != right.length) {
+            throw new IllegalArgumentException("Channel length mismatch: " + left.length + " / " + right.length);
+        }
+        this.filePath = filePath;
+        this.left = left;
+        this.right = right;
+        this.leftBuffer = null;
+        this.rightBuffer = null;
+        this.leftFloats = null;
+        this.rightFloats = null;
+        this.headFrames = left.length;
+        this.totalFrames = Math.max(totalFrames, headFrames);
+    }
+
+    // Sample hors heap : floats little-endian, lecture en accès absolu uniquement (getFloat(index))
+    public Sample(String filePath, ByteBuffer left, ByteBuffer right) {
+        if (left.capacity() != right.capacity()) {
+            throw new IllegalArgumentException("Channel length mismatch: " + left.capacity() + " / " + right.capacity());
+        }
+        this.filePath = filePath;
+        this.left = null;
+        this.right = null;
+        this.leftBuffer = left;
+        this.rightBuffer = right;
+        this.leftFloats = left.asFloatBuffer();
+        this.rightFloats = right == left ? leftFloats : right.asFloatBuffer(); // mono : même vue
+        this.headFrames = left.capacity() / Float.BYTES;
+        this.totalFrames = headFrames;
+    }
+
+    // Getters
+    public String getFilePath() { return filePath; }
+    public float[] getLeft() { return left; }
+    public float[] getRight() { return right; }
+    public ByteBuffer getLeftBuffer() { return leftBuffer; }
+    public ByteBuffer getRightBuffer() { return rightBuffer; }
+    public FloatBuffer getLeftFloats() { return leftFloats; }
+    public FloatBuffer getRightFloats() { return rightFloats; }
+
+    public long getSizeInBytes() {
+        int channels = isMono() ? 1 : 2;
+        return (long) headFrames * channels * Float.BYTES;
+    }
+
+    // Octets occupés sur le heap (0 pour un sample hors heap)
+    public long getHeapSizeInBytes() {
+        return isOffHeap() ? 0 : getSizeInBytes();
+    }
+
+    public boolean isOffHeap() {
+        return left == null;
+    }
+
+    // Mono : les deux canaux partagent les mêmes données
+    public boolean isMono() {
+        return isOffHeap() ? leftBuffer == rightBuffer : left == right;
+    }
+
+    public int getFrameLength() {
+        return totalFrames;
+    }
+
+    // Frames disponibles en mémoire (toutes, sauf pour un sample streamé)
+    public int getHeadFrameLength() {
+        return headFrames;
+    }
+
+    public boolean isStreamed() {
+        return totalFrames > headFrames;
+    }
+
+    public float getDurationSeconds() {
+        return totalFrames / AudioEngine.SAMPLE_RATE;
+    }
+
+    // Prend une référence avant de lire les données ; false si le sample est retiré
+    // (le déclenchement est alors abandonné). Sans verrou ni allocation.
+    boolean acquire() {
+        while (true) {
+            int count = readers.get();
+            if (count >= RETIRED || count == FREED) {
+                return false;
+            }
+            if (readers.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        readers.decrementAndGet();
+    }
+
+    // Plus aucune nouvelle lecture ; les lectures en cours continuent jusqu'à leur release()
+    void retire() {
+        while (true) {
+            int count = readers.get();
+            if (count >= RETIRED || count == FREED || readers.compareAndSet(count, count + RETIRED)) {
+                return;
+            }
+        }
+    }
+
+    // Sample repris par un kit avant que sa mémoire ne soit rendue : false s'il est trop tard
+    boolean revive() {
+        while (true) {
+            int count = readers.get();
+            if (count == FREED) {
+                return false;
+            }
+            if (count < RETIRED || readers.compareAndSet(count, count - RETIRED)) {
+                return true;
+            }
+        }
+    }
+
+    // Retiré et plus lu par personne : true une seule fois, l'appelant rend alors la mémoire
+    boolean markFreed() {
+        return readers.compareAndSet(RETIRED, FREED);
+    }
+
+    // Kit déchargé ou fichier rechargé : ce sample n'est plus joué
+    public boolean isRetired() {
+        int count = readers.get();
+        return count >= RETIRED || count == FREED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Sample{file='%s', frames=%d, offHeap=%s, streamed=%s}",
+                           filePath, totalFrames, isOffHeap(), isStreamed());
+    }
+}
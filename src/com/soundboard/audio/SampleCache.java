@@ -0,0 +1,274 @@
+package com.soundboard.audio;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// Cache LRU des samples décodés, borné en octets (clé = SoundPad.getFilePath())
+// Seuls les octets sur le heap comptent dans le budget : les samples hors heap (bundle mappé,
+// SampleStore) ne sont jamais évincés, ils vivent tant que leur kit est chargé (retain/release).
+public class SampleCache {
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024; // 64 MB
+    // Au-delà, le sample est streamé depuis le disque (seule la tête reste en cache)
+    public static final long DEFAULT_STREAM_THRESHOLD_BYTES = 1024 * 1024; // 1 MB décodé
+
+    // accessOrder = true → l'itération part du sample le moins récemment utilisé
+    private final LinkedHashMap<String, Sample> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Décodages en cours : deux demandes du même fichier partagent le même chargement
+    private final Map<String, CompletableFuture<Sample>> inFlight = new HashMap<>();
+    private final SampleStore store = new SampleStore();
+    private long budgetBytes;
+    private volatile long streamThresholdBytes = DEFAULT_STREAM_THRESHOLD_BYTES;
+    private long usedBytes = 0;
+
+    // Statistiques
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    public SampleCache() {
+        this(DEFAULT_BUDGET_BYTES);
+    }
+
+    public SampleCache(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+    }
+
+    // Retourne le sample en mémoire, ou le décode depuis le disque au premier appel
+    public Sample get(String filePath) throws IOException, UnsupportedAudioFileException {
+        CompletableFuture<Sample> future;
+        boolean owner = false;
+        synchronized (this) {
+            Sample cached = entries.get(filePath);
+            if (cached != null) {
+                hitCount++;
+                return cached;
+            }
+            future = inFlight.get(filePath);
+            if (future == null) {
+                missCount++;
+                future = new CompletableFuture<>();
+                inFlight.put(filePath, future);
+                owner = true;
+            }
+        }
+
+        // Décodage hors du verrou : un chargement lent ne bloque pas les autres pads
+        if (owner) {
+            load(filePath, future);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof UnsupportedAudioFileException) throw (UnsupportedAudioFileException) cause;
+            throw e;
+        }
+    }
+
+    // Variante asynchrone : le décodage tourne sur l'executor fourni
+    public CompletableFuture<Sample> getAsync(String filePath, Executor executor) {
+        CompletableFuture<Sample> future;
+        synchronized (this) {
+            Sample cached = entries.get(filePath);
+            if (cached != null) {
+                hitCount++;
+                return CompletableFuture.completedFuture(cached);
+            }
+            future = inFlight.get(filePath);
+            if (future != null) {
+                return future;
+            }
+            missCount++;
+            future = new CompletableFuture<>();
+            inFlight.put(filePath, future);
+        }
+
+        CompletableFuture<Sample> pending = future;
+        executor.execute(() -> load(filePath, pending));
+        return pending;
+    }
+
+    private void load(String filePath, CompletableFuture<Sample> future) {
+        CacheMissEvent event = new CacheMissEvent();
+        event.begin();
+        try {
+            // Encore retenu par un kit (entrée invalidée entre-temps) : pas de décodage
+            Sample sample = store.get(filePath);
+            if (sample == null) {
+                sample = SampleDecoder.load(filePath, streamThresholdBytes);
+            }
+            put(sample);
+            event.bytes = sample.getHeapSizeInBytes();
+            event.streamed = sample.isStreamed();
+            future.complete(sample);
+        } catch (Throwable e) {
+            // Toujours terminer le future, sinon les appels en attente resteraient bloqués
+            event.failed = true;
+            future.completeExceptionally(e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.file = filePath;
+                event.commit();
+            }
+            synchronized (this) {
+                inFlight.remove(filePath);
+            }
+        }
+    }
+
+    public synchronized Sample getIfPresent(String filePath) {
+        return entries.get(filePath);
+    }
+
+    public synchronized boolean contains(String filePath) {
+        return entries.containsKey(filePath);
+    }
+
+    public synchronized void put(Sample sample) {
+        Sample previous = entries.put(sample.getFilePath(), sample);
+        if (previous != null) {
+            usedBytes -= previous.getHeapSizeInBytes();
+        }
+        usedBytes += sample.getHeapSizeInBytes();
+        evictToBudget();
+    }
+
+    // Le sample appartient au kit owner : copié hors heap (une fois pour tous les kits)
+    // et remplacé dans le cache. Retourne la version que le rendu doit lire.
+    public Sample retain(String owner, Sample sample) {
+        Sample stored = store.retain(owner, sample);
+        if (stored == null) {
+            // Copie d'un kit déchargé entre-temps, mémoire déjà rendue : le fichier est redécodé
+            synchronized (this) {
+                if (entries.get(sample.getFilePath()) == sample) {
+                    invalidate(sample.getFilePath());
+                }
+            }
+            try {
+                stored = store.retain(owner, SampleDecoder.load(sample.getFilePath(), streamThresholdBytes));
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }
+        put(stored);
+        return stored;
+    }
+
+    // Kit enregistré en bundle pendant qu'il est chargé : la version mappée remplace la copie
+    // en mémoire (hors heap retenue par les mêmes kits, ou sample streamé sur le heap).
+    // L'ancienne copie est retirée : les voix en cours la finissent, puis sa mémoire est rendue.
+    public Sample adopt(String owner, Sample mapped) {
+        Sample stored = store.isRetained(mapped.getFilePath()) ? store.replace(mapped) : store.retain(owner, mapped);
+        put(stored);
+        return stored;
+    }
+
+    // Kit déchargé : les samples qu'aucun autre kit ne retient quittent le cache.
+    // Retourne leurs chemins
+    public List<String> release(String owner) {
+        List<String> released = store.release(owner);
+        List<String> invalidated = new ArrayList<>();
+        synchronized (this) {
+            for (String filePath : released) {
+                if (!store.isRetained(filePath)) { // repris par un kit entre-temps
+                    invalidate(filePath);
+                    invalidated.add(filePath);
+                }
+            }
+        }
+        return invalidated;
+    }
+
+    // Un seul fichier quitte le kit (kit modifié sur le disque) : true s'il quitte le cache
+    public boolean release(String owner, String filePath) {
+        if (store.release(owner, filePath)) {
+            invalidate(filePath);
+            return true;
+        }
+        return false;
+    }
+
+    // Fichier modifié sur le disque : nouveau décodage en arrière-plan, puis remplacement
+    // dans le cache. L'ancienne version reste jouable jusque-là (pas de trou au rendu).
+    public CompletableFuture<Sample> reload(String filePath, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Sample stored = store.replace(SampleDecoder.load(filePath, streamThresholdBytes));
+                put(stored);
+                return stored;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    public synchronized void invalidate(String filePath) {
+        Sample removed = entries.remove(filePath);
+        if (removed != null) {
+            usedBytes -= removed.getHeapSizeInBytes();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, Sample>> it = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            Sample eldest = it.next().getValue();
+            if (eldest.isOffHeap()) continue;
+            it.remove();
+            usedBytes -= eldest.getHeapSizeInBytes();
+            evictionCount++;
+        }
+    }
+
+    // Budget mémoire
+    public synchronized long getBudgetBytes() { return budgetBytes; }
+    public synchronized long getUsedBytes() { return usedBytes; }
+
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+        evictToBudget();
+    }
+
+    public SampleStore getStore() { return store; }
+
+    public long getStreamThresholdBytes() { return streamThresholdBytes; }
+
+    // Long.MAX_VALUE : tout garder en mémoire. Ne s'applique qu'aux prochains chargements.
+    public void setStreamThresholdBytes(long streamThresholdBytes) {
+        this.streamThresholdBytes = Math.max(0, streamThresholdBytes);
+    }
+
+    // Compteurs
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getEvictionCount() { return evictionCount; }
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("SampleCache{samples=%d, used=%d/%d bytes, offHeap=%d bytes, hits=%d, misses=%d, evictions=%d}",
+                           entries.size(), usedBytes, budgetBytes, store.getOffHeapBytes(),
+                           hitCount, missCount, evictionCount);
+    }
+}
@@ -0,0 +1,143 @@
+package com.soundboard.audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Arrays;
+
+// 🔄 Conversion vers le format du moteur, une seule fois au chargement :
+// profondeur (8/16/24/32 bits entiers, float 32/64) → float, canaux → stéréo planaire (L, R),
+// fréquence → AudioEngine.SAMPLE_RATE. Le rendu n'a plus qu'à additionner des tableaux.
+public class SampleConverter {
+    // Noyau sinc fenêtré (Blackman) tabulé, interpolé linéairement
+    private static final int ZERO_CROSSINGS = 16;
+    private static final int TABLE_RESOLUTION = 512; // points par passage à zéro
+    private static final float[] KERNEL = buildKernel();
+
+    private SampleConverter() {}
+
+    public static boolean isEngineRate(float sampleRate) {
+        return sampleRate == AudioEngine.SAMPLE_RATE;
+    }
+
+    // Formats lus directement par toFloats() ; les autres passent par Java Sound
+    public static boolean isSupported(AudioFormat format) {
+        AudioFormat.Encoding encoding = format.getEncoding();
+        int bits = format.getSampleSizeInBits();
+        if (AudioFormat.Encoding.PCM_FLOAT.equals(encoding)) {
+            return bits == 32 || bits == 64;
+        }
+        return (AudioFormat.Encoding.PCM_SIGNED.equals(encoding) || AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding))
+               && (bits == 8 || bits == 16 || bits == 24 || bits == 32)
+               && format.getFrameSize() == format.getChannels() * (bits / 8);
+    }
+
+    // Octets PCM (format supporté) → floats entrelacés dans [-1, 1]. Retourne le nombre de floats écrits.
+    public static int toFloats(byte[] bytes, int byteCount, AudioFormat format, float[] dst, int dstOffset) {
+        int bytesPerSample = format.getSampleSizeInBits() / 8;
+        boolean bigEndian = format.isBigEndian();
+        AudioFormat.Encoding encoding = format.getEncoding();
+        int count = byteCount / bytesPerSample;
+
+        if (AudioFormat.Encoding.PCM_FLOAT.equals(encoding)) {
+            for (int i = 0; i < count; i++) {
+                long bits = readBits(bytes, i * bytesPerSample, bytesPerSample, bigEndian);
+                dst[dstOffset + i] = bytesPerSample == 8
+                        ? (float) Double.longBitsToDouble(bits)
+                        : Float.intBitsToFloat((int) bits);
+            }
+            return count;
+        }
+
+        boolean unsigned = AudioFormat.Encoding.PCM_UNSIGNED.equals(encoding);
+        int shift = 64 - 8 * bytesPerSample;
+        double scale = 1.0 / (1L << (8 * bytesPerSample - 1));
+        for (int i = 0; i < count; i++) {
+            long bits = readBits(bytes, i * bytesPerSample, bytesPerSample, bigEndian);
+            if (unsigned) {
+                bits -= 1L << (8 * bytesPerSample - 1);
+            } else {
+                bits = (bits << shift) >> shift; // extension de signe
+            }
+            dst[dstOffset + i] = (float) (bits * scale);
+        }
+        return count;
+    }
+
+    private static long readBits(byte[] bytes, int offset, int size, boolean bigEndian) {
+        long value = 0;
+        for (int b = 0; b < size; b++) {
+            int index = bigEndian ? offset + b : offset + size - 1 - b;
+            value = (value << 8) | (bytes[index] & 0xFF);
+        }
+        return value;
+    }
+
+    // Floats entrelacés → sample au format du moteur
+    public static Sample toSample(String filePath, float[] interleaved, int frames, int channels, float sampleRate) {
+        float[] left = channel(interleaved, frames, channels, 0);
+        float[] right = channels > 1 ? channel(interleaved, frames, channels, 1) : null;
+
+        if (!isEngineRate(sampleRate)) {
+            left = resample(left, frames, sampleRate, AudioEngine.SAMPLE_RATE);
+            if (right != null) {
+                right = resample(right, frames, sampleRate, AudioEngine.SAMPLE_RATE);
+            }
+        }
+        // Mono : les deux canaux partagent le même tableau
+        return new Sample(filePath, left, right != null ? right : left);
+    }
+
+    // Extrait un canal. Au-delà de 2 canaux, seule la paire avant (0, 1) est gardée.
+    public static float[] channel(float[] interleaved, int frames, int channels, int channel) {
+        float[] out = new float[frames];
+        for (int i = 0, j = channel; i < frames; i++, j += channels) {
+            out[i] = interleaved[j];
+        }
+        return out;
+    }
+
+    // Conversion de fréquence par sinc fenêtré. En sous-échantillonnage la coupure suit
+    // la nouvelle fréquence de Nyquist (pas de repliement).
+    public static float[] resample(float[] in, int frames, double fromRate, double toRate) {
+        if (fromRate == toRate) {
+            return Arrays.copyOf(in, frames);
+        }
+        double ratio = toRate / fromRate;
+        int outFrames = (int) Math.round(frames * ratio);
+        double cutoff = Math.min(1.0, ratio);
+        int halfWidth = (int) Math.ceil(ZERO_CROSSINGS / cutoff); // en frames source
+        float[] out = new float[outFrames];
+
+        for (int o = 0; o < outFrames; o++) {
+            double center = o / ratio;
+            int base = (int) Math.floor(center);
+            int from = Math.max(0, base - halfWidth + 1);
+            int to = Math.min(frames - 1, base + halfWidth);
+            double sum = 0;
+            for (int k = from; k <= to; k++) {
+                sum += in[k] * kernel(Math.abs(center - k) * cutoff);
+            }
+            out[o] = (float) (sum * cutoff);
+        }
+        return out;
+    }
+
+    private static float kernel(double t) {
+        double position = t * TABLE_RESOLUTION;
+        int index = (int) position;
+        if (index >= KERNEL.length - 1) return 0f;
+        float frac = (float) (position - index);
+        return KERNEL[index] + (KERNEL[index + 1] - KERNEL[index]) * frac;
+    }
+
+    private static float[] buildKernel() {
+        float[] table = new float[ZERO_CROSSINGS * TABLE_RESOLUTION + 1];
+        for (int i = 0; i < table.length; i++) {
+            double t = (double) i / TABLE_RESOLUTION;
+            double sinc = t == 0 ? 1.0 : Math.sin(Math.PI * t) / (Math.PI * t);
+            double w = (double) i / (table.length - 1); // 0 au centre, 1 au bord
+            double blackman = 0.42 + 0.5 * Math.cos(Math.PI * w) + 0.08 * Math.cos(2 * Math.PI * w);
+            table[i] = (float) (sinc * blackman);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,124 @@
+package com.soundboard.audio;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.JavaLayerException;
+import javazoom.jl.decoder.SampleBuffer;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Décodage d'un fichier audio (WAV/AIFF/AU via Java Sound, MP3 via JLayer) vers un Sample
+// au format du moteur
+public class SampleDecoder {
+
+    public static Sample decode(String filePath) throws IOException, UnsupportedAudioFileException {
+        return load(filePath, Long.MAX_VALUE);
+    }
+
+    // Au-delà de streamThresholdBytes (taille convertie), seule la tête du sample est chargée :
+    // la suite sera lue pendant la lecture. Les MP3 et les fichiers à une autre fréquence
+    // que le moteur (conversion de fréquence sur tout le fichier) sont toujours chargés en entier.
+    public static Sample load(String filePath, long streamThresholdBytes)
+            throws IOException, UnsupportedAudioFileException {
+        if (filePath.toLowerCase().endsWith(".mp3")) {
+            return decodeMP3(filePath);
+        }
+
+        try (AudioInputStream pcmIn = openPcm(filePath)) {
+            AudioFormat format = pcmIn.getFormat();
+            int channels = format.getChannels();
+            long frames = pcmIn.getFrameLength();
+
+            if (frames > 0 && frames * 2 * Float.BYTES > streamThresholdBytes && frames <= Integer.MAX_VALUE
+                    && SampleConverter.isEngineRate(format.getSampleRate())) {
+                int headFrames = (int) Math.min(frames, SampleStreamer.HEAD_FRAMES);
+                byte[] bytes = pcmIn.readNBytes(headFrames * format.getFrameSize());
+                float[] interleaved = new float[bytes.length / format.getFrameSize() * channels];
+                SampleConverter.toFloats(bytes, bytes.length, format, interleaved, 0);
+                Sample head = SampleConverter.toSample(filePath, interleaved, interleaved.length / channels,
+                                                       channels, format.getSampleRate());
+                return new Sample(filePath, head.getLeft(), head.getRight(), (int) frames);
+            }
+
+            byte[] bytes = pcmIn.readAllBytes();
+            int frameCount = bytes.length / format.getFrameSize();
+            float[] interleaved = new float[frameCount * channels];
+            SampleConverter.toFloats(bytes, frameCount * format.getFrameSize(), format, interleaved, 0);
+            return SampleConverter.toSample(filePath, interleaved, frameCount, channels, format.getSampleRate());
+        }
+    }
+
+    // Flux PCM du fichier, dans un format lisible par SampleConverter.toFloats().
+    // Les encodages exotiques (µ-law, A-law...) sont convertis en 16 bits par Java Sound.
+    static AudioInputStream openPcm(String filePath) throws IOException, UnsupportedAudioFileException {
+        AudioInputStream source = AudioSystem.getAudioInputStream(new File(filePath));
+        AudioFormat sourceFormat = source.getFormat();
+        if (SampleConverter.isSupported(sourceFormat)) {
+            return source;
+        }
+
+        AudioFormat pcm16 = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                sourceFormat.getSampleRate(), 16, sourceFormat.getChannels(),
+                sourceFormat.getChannels() * 2, sourceFormat.getSampleRate(), false);
+        try {
+            return AudioSystem.getAudioInputStream(pcm16, source);
+        } catch (IllegalArgumentException e) {
+            source.close();
+            throw new UnsupportedAudioFileException("Cannot convert " + filePath + " to PCM: " + e.getMessage());
+        }
+    }
+
+    // Décode toutes les frames MP3 une fois pour toutes : plus de Player ni de thread par coup
+    private static Sample decodeMP3(String filePath) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filePath))) {
+            Bitstream bitstream = new Bitstream(in);
+            Decoder decoder = new Decoder();
+
+            float[] data = new float[1 << 16];
+            int length = 0;
+            int channels = 0;
+            float sampleRate = 0;
+
+            try {
+                Header header;
+                while ((header = bitstream.readFrame()) != null) {
+                    SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                    short[] buffer = output.getBuffer();
+                    int count = output.getBufferLength();
+
+                    if (channels == 0) {
+                        channels = output.getChannelCount();
+                        sampleRate = output.getSampleFrequency();
+                    }
+                    if (length + count > data.length) {
+                        data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+                    }
+                    for (int i = 0; i < count; i++) {
+                        data[length++] = buffer[i] / 32768f;
+                    }
+                    bitstream.closeFrame();
+                }
+            } catch (JavaLayerException e) {
+                throw new IOException("Invalid MP3 stream: " + filePath, e);
+            } finally {
+                try {
+                    bitstream.close();
+                } catch (JavaLayerException ignored) {}
+            }
+
+            if (channels == 0) {
+                throw new IOException("No MP3 frame found: " + filePath);
+            }
+            return SampleConverter.toSample(filePath, data, length / channels, channels, sampleRate);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.soundboard.audio;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.Header;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 🗂️ Index persistant des métadonnées des samples (clé = chemin du pad).
+// Au démarrage, un seul petit fichier est lu ; seuls les fichiers dont la date ou la taille
+// a changé sont relus (probe), les autres ne coûtent qu'un stat.
+// Fichier : magic, version, nombre d'entrées, puis une entrée par sample (DataOutputStream).
+public class SampleIndex {
+    public static final String FILE_NAME = ".sampleindex";
+    private static final int MAGIC = 0x53424958; // "SBIX"
+    private static final int VERSION = 1;
+    private static final float SILENCE_THRESHOLD = 0.001f; // -60 dBFS
+    private static final int CHUNK_FRAMES = 8192;
+
+    private final Path file;
+    private final Map<String, SampleInfo> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty = false;
+    private final AtomicInteger probeCount = new AtomicInteger();
+
+    private SampleIndex(Path file) {
+        this.file = file;
+    }
+
+    // Index vide si le fichier n'existe pas ou est illisible (il sera reconstruit)
+    public static SampleIndex open(Path file) {
+        SampleIndex index = new SampleIndex(file);
+        if (!Files.isRegularFile(file)) {
+            return index;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.err.println("Outdated sample index, rebuilding: " + file);
+                return index;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                SampleInfo info = new SampleInfo(in.readUTF(), in.readLong(), in.readLong(), in.readUTF(),
+                                                 in.readFloat(), in.readInt(), in.readInt(), in.readFloat(),
+                                                 in.readInt(), in.readUTF());
+                index.entries.put(info.getFilePath(), info);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading sample index " + file + ": " + e.getMessage());
+            index.entries.clear();
+        }
+        return index;
+    }
+
+    // Métadonnées connues, sans accès disque (null si jamais indexé)
+    public SampleInfo get(String filePath) {
+        return entries.get(filePath);
+    }
+
+    // Vérifie le fichier (un stat) et le relit seulement s'il a changé. null si absent ou illisible.
+    public SampleInfo refresh(String filePath) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(Paths.get(filePath), BasicFileAttributes.class);
+        } catch (IOException e) {
+            if (entries.remove(filePath) != null) dirty = true;
+            return null;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        SampleInfo known = entries.get(filePath);
+        if (known != null && known.matches(lastModified, size)) {
+            return known;
+        }
+
+        try {
+            SampleInfo info = probe(filePath, lastModified, size);
+            probeCount.incrementAndGet();
+            entries.put(filePath, info);
+            dirty = true;
+            return info;
+        } catch (NoSuchFileException e) {
+            if (entries.remove(filePath) != null) dirty = true;
+            return null;
+        } catch (Exception e) {
+            System.err.println("Cannot index " + filePath + ": " + e.getMessage());
+            if (entries.remove(filePath) != null) dirty = true;
+            return null;
+        }
+    }
+
+    // Vérifie plusieurs fichiers en parallèle sur l'executor
+    public CompletableFuture<Void> refreshAll(Collection<String> filePaths, Executor executor) {
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        for (String filePath : filePaths) {
+            tasks.add(CompletableFuture.runAsync(() -> refresh(filePath), executor));
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Écrit l'index s'il a changé (fichier temporaire puis renommage)
+    public synchronized void save() throws IOException {
+        if (!dirty) return;
+        dirty = false;
+        List<SampleInfo> snapshot = new ArrayList<>(entries.values());
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshot.size());
+            for (SampleInfo info : snapshot) {
+                out.writeUTF(info.getFilePath());
+                out.writeLong(info.getLastModified());
+                out.writeLong(info.getFileSize());
+                out.writeUTF(info.getFormat());
+                out.writeFloat(info.getSourceSampleRate());
+                out.writeInt(info.getChannels());
+                out.writeInt(info.getFrameLength());
+                out.writeFloat(info.getPeak());
+                out.writeInt(info.getLeadingSilenceFrames());
+                out.writeUTF(info.getContentHash());
+            }
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Getters
+    public Path getFile() { return file; }
+    public int size() { return entries.size(); }
+    public int getProbeCount() { return probeCount.get(); }
+
+    // Lecture complète du fichier : format, durée, crête, silence de tête, empreinte.
+    // Les PCM sont lus par blocs (aucun sample entier en mémoire), les MP3 décodés.
+    static SampleInfo probe(String filePath, long lastModified, long size) throws Exception {
+        String hash = hash(filePath);
+        if (filePath.toLowerCase().endsWith(".mp3")) {
+            return probeMP3(filePath, lastModified, size, hash);
+        }
+
+        try (AudioInputStream in = SampleDecoder.openPcm(filePath)) {
+            AudioFormat format = in.getFormat();
+            int channels = format.getChannels();
+            int frameSize = format.getFrameSize();
+            byte[] bytes = new byte[CHUNK_FRAMES * frameSize];
+            float[] interleaved = new float[CHUNK_FRAMES * channels];
+
+            long frames = 0;
+            long firstSound = -1;
+            float peak = 0f;
+            int read;
+            while ((read = in.readNBytes(bytes, 0, bytes.length)) > 0) {
+                int readFrames = read / frameSize;
+                int count = SampleConverter.toFloats(bytes, readFrames * frameSize, format, interleaved, 0);
+                for (int i = 0; i < count; i++) {
+                    float level = Math.abs(interleaved[i]);
+                    peak = Math.max(peak, level);
+                    if (firstSound < 0 && level > SILENCE_THRESHOLD) {
+                        firstSound = frames + i / channels;
+                    }
+                }
+                frames += readFrames;
+            }
+
+            double ratio = AudioEngine.SAMPLE_RATE / format.getSampleRate();
+            long silence = firstSound < 0 ? frames : firstSound;
+            String description = String.format("%s %.0f Hz %d bit %d ch", format.getEncoding(),
+                                               format.getSampleRate(), format.getSampleSizeInBits(), channels);
+            return new SampleInfo(filePath, lastModified, size, description, format.getSampleRate(), channels,
+                                  (int) Math.round(frames * ratio), Math.min(1f, peak),
+                                  (int) Math.round(silence * ratio), hash);
+        }
+    }
+
+    private static SampleInfo probeMP3(String filePath, long lastModified, long size, String hash) throws Exception {
+        float sampleRate;
+        int channels;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filePath))) {
+            Bitstream bitstream = new Bitstream(in);
+            Header header = bitstream.readFrame();
+            if (header == null) {
+                throw new IOException("No MP3 frame found: " + filePath);
+            }
+            sampleRate = header.frequency();
+            channels = header.mode() == Header.SINGLE_CHANNEL ? 1 : 2;
+            bitstream.close();
+        }
+
+        Sample sample = SampleDecoder.decode(filePath);
+        float peak = 0f;
+        int firstSound = -1;
+        for (int i = 0; i < sample.getFrameLength(); i++) {
+            float level = Math.max(Math.abs(sample.getLeft()[i]), Math.abs(sample.getRight()[i]));
+            peak = Math.max(peak, level);
+            if (firstSound < 0 && level > SILENCE_THRESHOLD) {
+                firstSound = i;
+            }
+        }
+        String description = String.format("MPEG %.0f Hz %d ch", sampleRate, channels);
+        return new SampleInfo(filePath, lastModified, size, description, sampleRate, channels,
+                              sample.getFrameLength(), Math.min(1f, peak),
+                              firstSound < 0 ? sample.getFrameLength() : firstSound, hash);
+    }
+
+    private static String hash(String filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // toujours disponible dans le JDK
+        }
+        try (InputStream in = Files.newInputStream(Paths.get(filePath))) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SampleIndex{file='%s', samples=%d, probed=%d}", file, entries.size(), probeCount.get());
+    }
+}
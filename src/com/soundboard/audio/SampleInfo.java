@@ -0,0 +1,63 @@
+package com.soundboard.audio;
+
+// Métadonnées d'un fichier audio, gardées dans le SampleIndex : valides tant que
+// la date de modification et la taille du fichier n'ont pas changé.
+// Les frames (durée, silence de tête) sont comptées à AudioEngine.SAMPLE_RATE.
+public class SampleInfo {
+    private final String filePath;
+    private final long lastModified; // millisecondes
+    private final long fileSize;
+    private final String format;     // format source, ex. "PCM_SIGNED 48000 Hz 24 bit 2 ch"
+    private final float sourceSampleRate;
+    private final int channels;
+    private final int frameLength;
+    private final float peak;        // niveau crête, 0..1
+    private final int leadingSilenceFrames;
+    private final String contentHash; // SHA-256 du fichier, en hexadécimal
+
+    public SampleInfo(String filePath, long lastModified, long fileSize, String format,
+                      float sourceSampleRate, int channels, int frameLength, float peak,
+                      int leadingSilenceFrames, String contentHash) {
+        this.filePath = filePath;
+        this.lastModified = lastModified;
+        this.fileSize = fileSize;
+        this.format = format;
+        this.sourceSampleRate = sourceSampleRate;
+        this.channels = channels;
+        this.frameLength = frameLength;
+        this.peak = peak;
+        this.leadingSilenceFrames = leadingSilenceFrames;
+        this.contentHash = contentHash;
+    }
+
+    // Getters
+    public String getFilePath() { return filePath; }
+    public long getLastModified() { return lastModified; }
+    public long getFileSize() { return fileSize; }
+    public String getFormat() { return format; }
+    public float getSourceSampleRate() { return sourceSampleRate; }
+    public int getChannels() { return channels; }
+    public int getFrameLength() { return frameLength; }
+    public float getPeak() { return peak; }
+    public int getLeadingSilenceFrames() { return leadingSilenceFrames; }
+    public String getContentHash() { return contentHash; }
+
+    public float getDurationSeconds() {
+        return frameLength / AudioEngine.SAMPLE_RATE;
+    }
+
+    public float getPeakDecibels() {
+        return peak > 0 ? (float) (20 * Math.log10(peak)) : Float.NEGATIVE_INFINITY;
+    }
+
+    // Même fichier sur le disque (pas besoin de le relire)
+    public boolean matches(long lastModified, long fileSize) {
+        return this.lastModified == lastModified && this.fileSize == fileSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SampleInfo{file='%s', format='%s', duration=%.3fs, peak=%.1f dB, silence=%d frames}",
+                           filePath, format, getDurationSeconds(), getPeakDecibels(), leadingSilenceFrames);
+    }
+}
@@ -0,0 +1,246 @@
+package com.soundboard.audio;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 🧊 Samples des kits chargés, gardés hors heap (ByteBuffer direct, floats little-endian) :
+// le GC ne les parcourt ni ne les copie, le heap ne grandit pas avec la bibliothèque.
+// Un sample est retenu par les kits qui l'utilisent (clé = nom du kit) et oublié quand
+// le dernier est déchargé. Un sample oublié est retiré (plus aucun nouveau déclenchement) et
+// sa mémoire est rendue tout de suite si personne ne le lit, sinon dès que la dernière voix
+// se termine (vérifié toutes les RECLAIM_MILLIS) : une voix en cours finit toujours de jouer.
+public class SampleStore {
+    private static final long RECLAIM_MILLIS = 100;
+    // sun.misc.Unsafe.invokeCleaner (jdk.unsupported), par réflexion : libère un buffer direct
+    // sans attendre le GC. null si indisponible : le Cleaner du buffer s'en charge.
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private static final class Entry {
+        final Sample sample;
+        final boolean copied; // false : déjà hors heap (bundle mappé), rien d'alloué ici
+        final Set<String> owners = new HashSet<>();
+
+        Entry(Sample sample, boolean copied) {
+            this.sample = sample;
+            this.copied = copied;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long offHeapBytes = 0;
+    // Samples retirés encore lus par une voix (mémoire pas encore rendue)
+    private final List<Sample> retired = new ArrayList<>();
+    private long retiredBytes = 0;
+    private ScheduledExecutorService reclaimer; // créé au premier sample retiré encore lu
+
+    // Retient le sample pour ce kit et retourne sa version hors heap (partagée entre kits).
+    // Un sample streamé reste sur le heap : seule sa tête est en mémoire.
+    public Sample retain(String owner, Sample sample) {
+        if (sample.isStreamed()) {
+            return sample;
+        }
+        synchronized (this) {
+            Entry entry = entries.get(sample.getFilePath());
+            if (entry != null) {
+                entry.owners.add(owner);
+                return entry.sample;
+            }
+        }
+
+        // Copie retirée pendant qu'on la récupérait du cache : reprise si sa mémoire
+        // n'est pas encore rendue, sinon null (le fichier doit être redécodé)
+        if (sample.isRetired()) {
+            return revive(owner, sample);
+        }
+
+        // Copie hors du verrou ; si un autre kit a gagné la course, sa copie est gardée
+        Sample stored = sample.isOffHeap() ? sample : copy(sample);
+        synchronized (this) {
+            Entry entry = entries.get(sample.getFilePath());
+            if (entry == null) {
+                entry = new Entry(stored, stored != sample);
+                entries.put(sample.getFilePath(), entry);
+                if (entry.copied) {
+                    offHeapBytes += stored.getSizeInBytes();
+                }
+            }
+            entry.owners.add(owner);
+            return entry.sample;
+        }
+    }
+
+    // Le kit est déchargé : retourne les fichiers qui ne sont plus retenus par aucun kit
+    public synchronized List<String> release(String owner) {
+        List<String> released = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            Entry entry = e.getValue();
+            if (entry.owners.remove(owner) && entry.owners.isEmpty()) {
+                it.remove();
+                retire(entry);
+                released.add(e.getKey());
+            }
+        }
+        return released;
+    }
+
+    // Fichier modifié sur le disque : la nouvelle version remplace l'ancienne pour les mêmes kits.
+    // Les voix en cours finissent sur l'ancienne. Retourne la version à mettre en cache.
+    public Sample replace(Sample sample) {
+        if (sample.isStreamed() || !isRetained(sample.getFilePath())) {
+            return sample;
+        }
+        Sample stored = sample.isOffHeap() ? sample : copy(sample);
+        synchronized (this) {
+            Entry previous = entries.get(sample.getFilePath());
+            if (previous == null) {
+                return sample; // libéré pendant la copie
+            }
+            Entry entry = new Entry(stored, stored != sample);
+            entry.owners.addAll(previous.owners);
+            entries.put(sample.getFilePath(), entry);
+            retire(previous);
+            if (entry.copied) offHeapBytes += stored.getSizeInBytes();
+            return stored;
+        }
+    }
+
+    // Le kit n'utilise plus ce fichier : retourne true s'il n'est plus retenu par aucun kit
+    public synchronized boolean release(String owner, String filePath) {
+        Entry entry = entries.get(filePath);
+        if (entry == null || !entry.owners.remove(owner) || !entry.owners.isEmpty()) {
+            return false;
+        }
+        entries.remove(filePath);
+        retire(entry);
+        return true;
+    }
+
+    private synchronized Sample revive(String owner, Sample sample) {
+        Entry entry = entries.get(sample.getFilePath());
+        if (entry != null) {
+            entry.owners.add(owner); // déjà rechargé par un autre kit
+            return entry.sample;
+        }
+        if (!retired.contains(sample) || !sample.revive()) {
+            return null;
+        }
+        retired.remove(sample);
+        retiredBytes -= sample.getSizeInBytes();
+        entry = new Entry(sample, true);
+        entry.owners.add(owner);
+        entries.put(sample.getFilePath(), entry);
+        offHeapBytes += sample.getSizeInBytes();
+        return sample;
+    }
+
+    // Entrée oubliée : plus de nouveau déclenchement, mémoire rendue dès que plus lue.
+    // Un sample mappé (bundle) appartient au bundle : rien à rendre ici.
+    private void retire(Entry entry) {
+        if (!entry.copied) return;
+        Sample sample = entry.sample;
+        offHeapBytes -= sample.getSizeInBytes();
+        sample.retire();
+        if (sample.markFreed()) {
+            free(sample);
+            return;
+        }
+        retired.add(sample);
+        retiredBytes += sample.getSizeInBytes();
+        if (reclaimer == null) {
+            reclaimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "sample-reclaimer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reclaimer.scheduleWithFixedDelay(this::reclaim, RECLAIM_MILLIS, RECLAIM_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Rend la mémoire des samples retirés dont la dernière voix s'est terminée
+    public synchronized void reclaim() {
+        Iterator<Sample> it = retired.iterator();
+        while (it.hasNext()) {
+            Sample sample = it.next();
+            if (sample.markFreed()) {
+                it.remove();
+                retiredBytes -= sample.getSizeInBytes();
+                free(sample);
+            }
+        }
+    }
+
+    public synchronized Sample get(String filePath) {
+        Entry entry = entries.get(filePath);
+        return entry != null ? entry.sample : null;
+    }
+
+    public synchronized boolean isRetained(String filePath) {
+        return entries.containsKey(filePath);
+    }
+
+    // Getters
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getOffHeapBytes() { return offHeapBytes; }
+    // Hors heap encore occupé par des samples retirés (voix en cours)
+    public synchronized long getRetiredBytes() { return retiredBytes; }
+
+    private static Sample copy(Sample sample) {
+        ByteBuffer left = toDirect(sample.getLeft());
+        ByteBuffer right = sample.isMono() ? left : toDirect(sample.getRight());
+        return new Sample(sample.getFilePath(), left, right);
+    }
+
+    private static void free(Sample sample) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invokeExact(sample.getLeftBuffer());
+            if (!sample.isMono()) {
+                INVOKE_CLEANER.invokeExact(sample.getRightBuffer());
+            }
+        } catch (Throwable e) {
+            System.err.println("Cannot free " + sample.getFilePath() + ": " + e.getMessage());
+        }
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (Throwable e) {
+            System.err.println("Direct buffers freed by the GC only: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer toDirect(float[] data) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(data);
+        return buffer;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("SampleStore{samples=%d, offHeap=%d bytes, retired=%d bytes}",
+                           entries.size(), offHeapBytes, retiredBytes);
+    }
+}
@@ -0,0 +1,282 @@
+package com.soundboard.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// 💿 Lecture depuis le disque des samples streamés (voir Sample.isStreamed()).
+// Chaque voix streamée obtient un Stream : un ring buffer stéréo planaire, au format du moteur,
+// rempli en avance par le thread "sample-streamer" pendant que la voix joue la tête du sample.
+// La conversion (profondeur, canaux) est faite par ce thread, jamais par le rendu.
+// Le nombre de Streams est fixe : au-delà, la voix ne joue que la tête.
+public class SampleStreamer {
+    public static final int HEAD_FRAMES = 32768;   // ~0.75 s à 44.1 kHz
+    public static final int DEFAULT_MAX_STREAMS = 8;
+    static final int RING_FRAMES = 1 << 15;        // puissance de 2 (masque)
+    private static final int CHUNK_FRAMES = 4096;
+    private static final long IDLE_PARK_NANOS = 2_000_000;
+
+    private static final int FREE = 0;
+    private static final int REQUESTED = 1;
+    private static final int ACTIVE = 2;
+    private static final int RELEASED = 3;
+
+    private final Stream[] streams;
+    private byte[] scratch = new byte[CHUNK_FRAMES * 4];
+    private float[] interleaved = new float[CHUNK_FRAMES * 2];
+    private volatile boolean synchronous = false;
+    private volatile boolean running = true;
+    private volatile Thread thread;
+
+    // Compteurs (écrits par le thread de rendu)
+    private volatile long starvedCount = 0;
+    private volatile long unavailableCount = 0;
+
+    // Un flux en cours : les frames [headFrames, writeFrame) sont dans le ring,
+    // la frame n à l'indice n & (RING_FRAMES - 1).
+    static final class Stream {
+        private final AtomicInteger state = new AtomicInteger(FREE);
+        private Sample sample;
+        private float[] ringLeft;
+        private float[] ringRight;
+        private volatile long writeFrame;
+        private volatile long readFrame;
+        private volatile long endFrame;
+        private AudioInputStream input; // thread de remplissage uniquement
+
+        long getWriteFrame() { return writeFrame; }
+        long getEndFrame() { return endFrame; }
+
+        float[] getRingLeft() { return ringLeft; }
+        float[] getRingRight() { return ringRight; }
+
+        void setReadFrame(long frame) {
+            readFrame = frame;
+        }
+    }
+
+    public SampleStreamer() {
+        this(DEFAULT_MAX_STREAMS);
+    }
+
+    public SampleStreamer(int maxStreams) {
+        this.streams = new Stream[Math.max(1, maxStreams)];
+        for (int i = 0; i < streams.length; i++) {
+            streams[i] = new Stream();
+        }
+    }
+
+    // Getters
+    public int getMaxStreams() { return streams.length; }
+    public long getStarvedCount() { return starvedCount; }
+    public long getUnavailableCount() { return unavailableCount; }
+    public boolean isSynchronous() { return synchronous; }
+
+    public int getActiveStreams() {
+        int count = 0;
+        for (Stream stream : streams) {
+            if (stream.state.get() != FREE) count++;
+        }
+        return count;
+    }
+
+    // Rendu offline : le thread de rendu lit lui-même le disque, aucun bloc n'est affamé
+    // et le résultat ne dépend pas de la vitesse du disque.
+    public void setSynchronous(boolean synchronous) {
+        this.synchronous = synchronous;
+    }
+
+    // Le thread (s'il a démarré) ferme les fichiers ouverts en sortant ; en mode synchrone,
+    // c'est fait ici : plus aucun rendu n'est attendu
+    public synchronized void shutdown() {
+        if (!running) return;
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        } else {
+            for (Stream stream : streams) {
+                close(stream);
+            }
+        }
+    }
+
+    // Thread de rendu : réserve un Stream pour une voix, null si tous sont occupés
+    Stream acquire(Sample sample) {
+        for (Stream stream : streams) {
+            if (stream.state.get() == FREE) {
+                stream.sample = sample;
+                stream.writeFrame = sample.getHeadFrameLength();
+                stream.readFrame = sample.getHeadFrameLength();
+                stream.endFrame = sample.getFrameLength();
+                stream.state.set(REQUESTED);
+                wake(stream);
+                return stream;
+            }
+        }
+        unavailableCount++;
+        return null;
+    }
+
+    // Thread de rendu : la voix est terminée ou volée
+    void release(Stream stream) {
+        stream.state.set(RELEASED);
+        wake(stream);
+    }
+
+    // Thread de rendu, mode synchrone : remplit le ring avant le mixage du bloc
+    void prepare(Stream stream) {
+        if (synchronous) {
+            service(stream);
+        }
+    }
+
+    void recordStarved() {
+        starvedCount++;
+    }
+
+    private void wake(Stream stream) {
+        if (synchronous) {
+            service(stream);
+            return;
+        }
+        if (thread == null) {
+            if (!running) return; // arrêté : pas de nouveau thread
+            startThread();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    private synchronized void startThread() {
+        if (thread != null) return;
+        thread = new Thread(this::run, "sample-streamer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY + 2);
+        thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            boolean busy = false;
+            for (Stream stream : streams) {
+                busy |= service(stream);
+            }
+            if (!busy) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        for (Stream stream : streams) {
+            close(stream);
+        }
+    }
+
+    // Ouvre, remplit ou ferme un Stream selon son état. Retourne true si du travail a été fait.
+    private boolean service(Stream stream) {
+        switch (stream.state.get()) {
+            case REQUESTED:
+                open(stream);
+                return true;
+            case ACTIVE:
+                return fill(stream);
+            case RELEASED:
+                close(stream);
+                stream.state.set(FREE);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void open(Stream stream) {
+        Sample sample = stream.sample;
+        try {
+            AudioInputStream input = SampleDecoder.openPcm(sample.getFilePath());
+            long toSkip = (long) sample.getHeadFrameLength() * input.getFormat().getFrameSize();
+            while (toSkip > 0) {
+                long skipped = input.skip(toSkip);
+                if (skipped <= 0) break;
+                toSkip -= skipped;
+            }
+            if (stream.ringLeft == null) {
+                stream.ringLeft = new float[RING_FRAMES];
+                stream.ringRight = new float[RING_FRAMES];
+            }
+            stream.input = input;
+        } catch (Exception e) {
+            // Fichier disparu ou illisible : la voix s'arrête à la fin de la tête
+            System.err.println("Cannot stream " + sample.getFilePath() + ": " + e.getMessage());
+            stream.endFrame = sample.getHeadFrameLength();
+        }
+        if (!stream.state.compareAndSet(REQUESTED, ACTIVE)) {
+            // Relâché pendant l'ouverture
+            close(stream);
+            stream.state.set(FREE);
+        }
+    }
+
+    private boolean fill(Stream stream) {
+        AudioInputStream input = stream.input;
+        if (input == null) return false;
+
+        boolean filled = false;
+        AudioFormat format = input.getFormat();
+        int channels = format.getChannels();
+        int frameSize = format.getFrameSize();
+        if (scratch.length < CHUNK_FRAMES * frameSize) {
+            scratch = new byte[CHUNK_FRAMES * frameSize];
+        }
+        if (interleaved.length < CHUNK_FRAMES * channels) {
+            interleaved = new float[CHUNK_FRAMES * channels];
+        }
+
+        while (stream.state.get() == ACTIVE) {
+            long write = stream.writeFrame;
+            long free = RING_FRAMES - (write - stream.readFrame);
+            // Jusqu'à la fin du ring (pas de lecture à cheval sur le bouclage)
+            int contiguous = RING_FRAMES - (int) (write & (RING_FRAMES - 1));
+            int frames = (int) Math.min(Math.min(free, contiguous), CHUNK_FRAMES);
+            if (frames <= 0 || write >= stream.endFrame) break;
+
+            int read;
+            try {
+                read = input.read(scratch, 0, frames * frameSize);
+            } catch (Exception e) {
+                System.err.println("Error streaming " + stream.sample.getFilePath() + ": " + e.getMessage());
+                read = -1;
+            }
+            if (read <= 0) {
+                // Fichier plus court que prévu : la voix s'arrête là où les données s'arrêtent
+                stream.endFrame = write;
+                close(stream);
+                break;
+            }
+            int readFrames = read / frameSize;
+            SampleConverter.toFloats(scratch, readFrames * frameSize, format, interleaved, 0);
+            // Même correspondance des canaux que SampleConverter.toSample()
+            int start = (int) (write & (RING_FRAMES - 1));
+            int rightChannel = channels > 1 ? 1 : 0;
+            for (int i = 0, j = 0; i < readFrames; i++, j += channels) {
+                stream.ringLeft[start + i] = interleaved[j];
+                stream.ringRight[start + i] = interleaved[j + rightChannel];
+            }
+            stream.writeFrame = write + readFrames;
+            filled = true;
+        }
+        return filled;
+    }
+
+    private void close(Stream stream) {
+        if (stream.input != null) {
+            try {
+                stream.input.close();
+            } catch (Exception ignored) {}
+            stream.input = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SampleStreamer{active=%d/%d, starved=%d, unavailable=%d}",
+                           getActiveStreams(), streams.length, starvedCount, unavailableCount);
+    }
+}
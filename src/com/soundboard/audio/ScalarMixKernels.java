@@ -0,0 +1,30 @@
+package com.soundboard.audio;
+
+// Implémentation de référence, sans dépendance
+class ScalarMixKernels extends MixKernels {
+
+    @Override
+    String getName() { return "scalar"; }
+
+    @Override
+    float mix(float[] srcLeft, float[] srcRight, int from,
+              float[] left, float[] right, int to, int count, float gain) {
+        float peak = 0f;
+        for (int i = 0; i < count; i++) {
+            float l = srcLeft[from + i] * gain;
+            float r = srcRight[from + i] * gain;
+            left[to + i] += l;
+            right[to + i] += r;
+            peak = Math.max(peak, Math.max(Math.abs(l), Math.abs(r)));
+        }
+        return peak;
+    }
+
+    @Override
+    void master(float[] left, float[] right, int frames, float gain) {
+        for (int i = 0; i < frames; i++) {
+            left[i] = softClip(left[i] * gain);
+            right[i] = softClip(right[i] * gain);
+        }
+    }
+}
@@ -1,52 +1,89 @@
 package com.soundboard.audio;
 
-import javazoom.jl.player.Player;
-import javax.sound.sampled.*;
-import java.io.File;
-import java.io.FileInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SoundPlayer {
+    private final SampleCache cache;
+    private final AudioEngine engine;
 
-    public void play(String filePath) {
-        if (filePath.toLowerCase().endsWith(".mp3")) {
-            playMP3(filePath);
-        } else {
-            playWAV(filePath);
-        }
+    // Décodage en arrière-plan des samples demandés par le thread de rendu
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sample-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SoundPlayer() {
+        this(new SampleCache());
     }
 
-    private void playWAV(String filePath) {
-        try {
-            AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(filePath));
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioIn);
-            clip.start();
-
-            clip.addLineListener(event -> {
-                if (event.getType() == LineEvent.Type.STOP) {
-                    clip.close();
-                    try {
-                        audioIn.close();
-                    } catch (Exception ignored) {}
-                }
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public SoundPlayer(SampleCache cache) {
+        this(cache, true);
     }
 
-    private void playMP3(String filePath) {
-        new Thread(() -> {
-            try (FileInputStream fis = new FileInputStream(filePath)) {
-                Player player = new Player(fis);
-                player.play(); // bloquant → on le met dans un thread
+    // openOutput = false : pas de ligne audio (rendu offline, serveurs sans carte son)
+    public SoundPlayer(SampleCache cache, boolean openOutput) {
+        this.cache = cache;
+        this.engine = new AudioEngine();
+        if (openOutput) {
+            try {
+                engine.start();
             } catch (Exception e) {
-                e.printStackTrace();
+                System.err.println("Audio output unavailable: " + e.getMessage());
             }
-        }).start();
+        }
+    }
+
+    public SampleCache getCache() { return cache; }
+    public AudioEngine getEngine() { return engine; }
+
+    // WAV et MP3 passent par le même chemin : PCM en cache puis voix dans le mixer
+    public void play(String filePath) {
+        play(filePath, System.nanoTime());
     }
-}
 
+    // pressedNanos : instant de l'appui (System.nanoTime), pour la mesure de latence
+    public void play(String filePath, long pressedNanos) {
+        play(filePath, 1.0f, pressedNanos);
+    }
+
+    // gain : volume du pad (SoundPad.getVolume()), appliqué par le mixer sur la voix.
+    // Jamais de décodage ni d'attente sur le thread appelant (EDT) : un sample pas encore
+    // en cache est chargé en arrière-plan et joué dès qu'il est prêt (la latence mesurée
+    // depuis l'appui inclut alors le chargement).
+    public void play(String filePath, float gain, long pressedNanos) {
+        // Pas d'ouverture de ligne : la voix est mise en file et mixée au prochain bloc
+        Sample sample = cache.getIfPresent(filePath);
+        if (sample != null) {
+            engine.getMixer().trigger(sample, gain, 0, pressedNanos);
+            return;
+        }
+        load(filePath).thenAccept(loaded -> {
+            if (loaded != null) {
+                engine.getMixer().trigger(loaded, gain, 0, pressedNanos);
+            }
+        });
+    }
 
+    public void preload(String filePath) {
+        if (cache.contains(filePath)) {
+            return;
+        }
+        load(filePath);
+    }
 
+    // Sample du cache, décodé en arrière-plan si besoin (null en cas d'erreur, déjà signalée)
+    public CompletableFuture<Sample> load(String filePath) {
+        return cache.getAsync(filePath, loader).exceptionally(e -> {
+            System.err.println("Error loading sample " + filePath + ": " + e.getMessage());
+            return null;
+        });
+    }
 
+    public void shutdown() {
+        engine.stop();
+        loader.shutdownNow();
+    }
+}
@@ -0,0 +1,82 @@
+package com.soundboard.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// File bornée multi-producteurs / un consommateur, sans verrou ni allocation.
+// Les producteurs (EDT, séquenceur...) réservent un slot par CAS ; le thread de rendu
+// consomme les déclenchements et les transforme en voix dans le mixer.
+class TriggerQueue {
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Sample[] samples;
+    private final float[] gains;
+    private final int[] offsets;
+    private final long[] triggerNanos;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0; // uniquement lu/écrit par le consommateur
+
+    TriggerQueue(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.samples = new Sample[capacity];
+        this.gains = new float[capacity];
+        this.offsets = new int[capacity];
+        this.triggerNanos = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Retourne false si la file est pleine (le déclenchement est abandonné)
+    boolean offer(Sample sample, float gain, int frameOffset, long nanos) {
+        long pos;
+        int index;
+        while (true) {
+            pos = tail.get();
+            index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+        samples[index] = sample;
+        gains[index] = gain;
+        offsets[index] = frameOffset;
+        triggerNanos[index] = nanos;
+        sequences.set(index, pos + 1); // publie le slot au consommateur
+        return true;
+    }
+
+    void drainTo(AudioMixer mixer) {
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return;
+            }
+            mixer.startVoice(samples[index], gains[index], offsets[index], triggerNanos[index]);
+            samples[index] = null;
+            sequences.set(index, head + mask + 1); // rend le slot aux producteurs
+            head++;
+        }
+    }
+
+    // Déclenchements abandonnés : leurs références sur les samples sont rendues
+    void clear() {
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                return;
+            }
+            samples[index].release();
+            samples[index] = null;
+            sequences.set(index, head + mask + 1);
+            head++;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.soundboard.audio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.soundboard.Underrun")
+@Label("Buffer Underrun")
+@Category({ "Soundboard", "Audio" })
+@Description("Output line ran dry before the next block was written")
+@StackTrace(false)
+class UnderrunEvent extends jdk.jfr.Event {
+    @Label("Buffer Frames")
+    int bufferFrames;
+
+    @Label("Frame Position")
+    long framePosition;
+}
@@ -0,0 +1,131 @@
+package com.soundboard.audio;
+
+// Une lecture d'un sample dans le mixer. Les voix sont préallouées par le VoicePool
+// et réutilisées : aucun objet n'est créé par déclenchement.
+// Les samples sont déjà au format du moteur : le rendu est une simple addition avec gain.
+class Voice {
+    private final SampleStreamer streamer;
+
+    private Sample sample;
+    private float gain;
+    private int position; // prochaine frame du sample à jouer
+    private long startOrder;
+    private int startDelay; // frames de silence avant le début, dans le premier bloc
+    private float lastPeak; // niveau du dernier bloc rendu (politique QUIETEST)
+    private boolean active = false;
+    private SampleStreamer.Stream stream; // null pour un sample entièrement en mémoire
+
+    Voice(SampleStreamer streamer) {
+        this.streamer = streamer;
+    }
+
+    // La voix reçoit la référence prise au déclenchement (AudioMixer.trigger)
+    void start(Sample sample, float gain, long startOrder, int startDelay) {
+        releaseStream(); // voix volée
+        if (this.sample != null) {
+            this.sample.release();
+        }
+        this.sample = sample;
+        this.stream = sample.isStreamed() ? streamer.acquire(sample) : null;
+        this.gain = gain;
+        this.position = 0;
+        this.startOrder = startOrder;
+        this.startDelay = Math.max(0, startDelay);
+        this.lastPeak = gain; // pas encore rendue : on la considère au niveau max
+        this.active = true;
+    }
+
+    void release() {
+        releaseStream();
+        active = false;
+        if (sample != null) {
+            sample.release();
+            sample = null;
+        }
+    }
+
+    private void releaseStream() {
+        if (stream != null) {
+            streamer.release(stream);
+            stream = null;
+        }
+    }
+
+    boolean isActive() { return active; }
+    Sample getSample() { return sample; }
+    long getStartOrder() { return startOrder; }
+    float getLastPeak() { return lastPeak; }
+
+    // Ajoute la voix dans le bloc stéréo. La voix se libère quand le sample est terminé.
+    void mix(MixKernels kernels, float[] left, float[] right, int frames) {
+        int first = Math.min(startDelay, frames);
+        startDelay -= first;
+
+        if (sample.isStreamed()) {
+            mixStreamed(kernels, left, right, first, frames);
+            return;
+        }
+
+        int count = Math.min(frames - first, sample.getFrameLength() - position);
+        if (sample.isOffHeap()) {
+            lastPeak = kernels.mix(sample.getLeftFloats(), sample.getRightFloats(), position,
+                                   left, right, first, count, gain);
+        } else {
+            lastPeak = kernels.mix(sample.getLeft(), sample.getRight(), position,
+                                   left, right, first, count, gain);
+        }
+        position += count;
+        if (position >= sample.getFrameLength()) {
+            release();
+        }
+    }
+
+    // Sample streamé : la tête vient de la mémoire, la suite du ring buffer du Stream.
+    // Si le disque n'a pas suivi, la voix se met en pause jusqu'au bloc suivant.
+    private void mixStreamed(MixKernels kernels, float[] left, float[] right, int first, int frames) {
+        int headFrames = sample.getHeadFrameLength();
+        long available = headFrames;
+        long end = headFrames; // sans Stream : la tête seulement
+        if (stream != null) {
+            streamer.prepare(stream);
+            available = stream.getWriteFrame();
+            end = stream.getEndFrame();
+        }
+        float peak = 0f;
+        int offset = first;
+
+        if (position < headFrames) {
+            int count = Math.min(frames - offset, headFrames - position);
+            peak = kernels.mix(sample.getLeft(), sample.getRight(), position, left, right, offset, count, gain);
+            position += count;
+            offset += count;
+        }
+
+        if (stream != null && offset < frames && position < end) {
+            int wanted = (int) Math.min(frames - offset, end - position);
+            int count = (int) Math.min(wanted, available - position);
+            // Le ring peut reboucler au milieu du bloc : au plus deux segments contigus
+            while (count > 0) {
+                int ringIndex = position & (SampleStreamer.RING_FRAMES - 1);
+                int segment = Math.min(count, SampleStreamer.RING_FRAMES - ringIndex);
+                peak = Math.max(peak, kernels.mix(stream.getRingLeft(), stream.getRingRight(),
+                                                  ringIndex, left, right, offset, segment, gain));
+                position += segment;
+                offset += segment;
+                count -= segment;
+                wanted -= segment;
+            }
+            if (wanted > 0) {
+                streamer.recordStarved();
+            }
+        }
+        lastPeak = peak;
+
+        if (position >= end) {
+            release();
+        } else if (stream != null) {
+            // Les frames avant la position courante peuvent être réécrites
+            stream.setReadFrame(Math.max(headFrames, position));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.soundboard.audio;
+
+import jdk.jfr.EventType;
+
+// Voix préallouées avec une polyphonie maximale fixe.
+// Quand toutes les voix sont occupées, une voix est volée selon la StealPolicy.
+// Utilisé uniquement depuis le thread de rendu.
+public class VoicePool {
+    public static final int DEFAULT_MAX_POLYPHONY = 32;
+
+    public enum StealPolicy {
+        OLDEST,    // la voix démarrée le plus tôt
+        QUIETEST,  // la voix au niveau le plus faible sur le dernier bloc
+        SAME_PAD   // une voix du même sample si possible, sinon la plus ancienne
+    }
+
+    // Vérifié avant d'instancier l'événement : rien n'est alloué sans enregistrement JFR actif
+    private static final EventType VOICE_START = EventType.getEventType(VoiceStartEvent.class);
+
+    private final Voice[] voices;
+    private final SampleStreamer streamer = new SampleStreamer();
+    private volatile StealPolicy stealPolicy;
+    private long startCounter = 0;
+
+    private volatile int activeCount = 0;
+    private volatile long stolenCount = 0;
+
+    public VoicePool(int maxPolyphony, StealPolicy stealPolicy) {
+        this.voices = new Voice[Math.max(1, maxPolyphony)];
+        for (int i = 0; i < voices.length; i++) {
+            voices[i] = new Voice(streamer);
+        }
+        this.stealPolicy = stealPolicy;
+    }
+
+    // Getters
+    public int getMaxPolyphony() { return voices.length; }
+    public StealPolicy getStealPolicy() { return stealPolicy; }
+    public int getActiveCount() { return activeCount; }
+    public long getStolenCount() { return stolenCount; }
+    public SampleStreamer getStreamer() { return streamer; }
+
+    // Pool abandonné (mixer arrêté, bounce terminé) : le thread de lecture des samples streamés
+    // s'arrête et ferme ses fichiers. Définitif : les samples streamés ne sont plus lus au-delà de leur tête
+    public void close() {
+        streamer.shutdown();
+    }
+
+    public void setStealPolicy(StealPolicy stealPolicy) {
+        if (stealPolicy != null) {
+            this.stealPolicy = stealPolicy;
+        }
+    }
+
+    void allocate(Sample sample, float gain, int frameOffset) {
+        Voice target = null;
+        for (Voice voice : voices) {
+            if (!voice.isActive()) {
+                target = voice;
+                break;
+            }
+        }
+        Sample stolen = null;
+        if (target == null) {
+            target = selectVictim(sample);
+            stolen = target.getSample();
+            stolenCount++;
+        }
+
+        if (VOICE_START.isEnabled()) {
+            VoiceStartEvent event = new VoiceStartEvent();
+            if (event.shouldCommit()) {
+                event.sample = sample.getFilePath();
+                event.frameOffset = frameOffset;
+                event.stolen = stolen != null;
+                event.stolenSample = stolen != null ? stolen.getFilePath() : null;
+                event.stealPolicy = stealPolicy.name();
+                event.commit();
+            }
+        }
+        target.start(sample, gain, startCounter++, frameOffset);
+    }
+
+    private Voice selectVictim(Sample sample) {
+        switch (stealPolicy) {
+            case QUIETEST: {
+                Voice quietest = voices[0];
+                for (Voice voice : voices) {
+                    // À niveau égal, la plus ancienne part d'abord (choix déterministe)
+                    if (voice.getLastPeak() < quietest.getLastPeak()
+                            || (voice.getLastPeak() == quietest.getLastPeak()
+                                && voice.getStartOrder() < quietest.getStartOrder())) {
+                        quietest = voice;
+                    }
+                }
+                return quietest;
+            }
+            case SAME_PAD: {
+                Voice samePad = null;
+                for (Voice voice : voices) {
+                    if (voice.getSample() == sample
+                            && (samePad == null || voice.getStartOrder() < samePad.getStartOrder())) {
+                        samePad = voice;
+                    }
+                }
+                return samePad != null ? samePad : oldest();
+            }
+            case OLDEST:
+            default:
+                return oldest();
+        }
+    }
+
+    private Voice oldest() {
+        Voice oldest = voices[0];
+        for (Voice voice : voices) {
+            if (voice.getStartOrder() < oldest.getStartOrder()) {
+                oldest = voice;
+            }
+        }
+        return oldest;
+    }
+
+    void mix(MixKernels kernels, float[] left, float[] right, int frames) {
+        int count = 0;
+        for (Voice voice : voices) {
+            if (voice.isActive()) {
+                voice.mix(kernels, left, right, frames);
+                if (voice.isActive()) {
+                    count++;
+                }
+            }
+        }
+        activeCount = count;
+    }
+
+    void releaseAll() {
+        for (Voice voice : voices) {
+            voice.release();
+        }
+        activeCount = 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.soundboard.audio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.soundboard.VoiceStart")
+@Label("Voice Start")
+@Category({ "Soundboard", "Audio" })
+@Description("Voice allocated in the pool, possibly by stealing a playing one")
+@StackTrace(false)
+class VoiceStartEvent extends jdk.jfr.Event {
+    @Label("Sample")
+    String sample;
+
+    @Label("Frame Offset")
+    int frameOffset;
+
+    @Label("Stolen")
+    boolean stolen;
+
+    @Label("Stolen Sample")
+    String stolenSample;
+
+    @Label("Steal Policy")
+    String stealPolicy;
+}
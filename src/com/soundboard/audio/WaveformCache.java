@@ -0,0 +1,190 @@
+package com.soundboard.audio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 〰️ Formes d'onde des samples chargés, pour l'UI (pads, pistes du séquenceur).
+// Calculées sur un thread de fond à basse priorité (jamais sur l'EDT ni au rendu audio),
+// puis gardées à côté du kit : sounds/metal/.peaks/metalkick.wav.peaks. Au démarrage suivant,
+// le fichier est relu tant que la date et la taille du sample n'ont pas changé.
+// Fichier : magic, version, date et taille du sample, puis la pyramide (WaveformPeaks).
+public class WaveformCache {
+    public static final String FOLDER_NAME = ".peaks";
+    private static final String EXTENSION = ".peaks";
+    private static final int MAGIC = 0x53425750; // "SBWP"
+    private static final int VERSION = 1;
+
+    // Forme d'onde prête (appelé depuis le thread de calcul)
+    public interface WaveformListener {
+        void onWaveformReady(String filePath);
+    }
+
+    // Lu par l'EDT à chaque dessin : aucun verrou
+    private final Map<String, WaveformPeaks> peaks = new ConcurrentHashMap<>();
+    // Calculs en cours : deux demandes du même fichier partagent le même calcul
+    private final Map<String, CompletableFuture<WaveformPeaks>> inFlight = new HashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "waveform-peaks");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private volatile WaveformListener listener;
+
+    // Statistiques
+    private final AtomicInteger computeCount = new AtomicInteger();
+    private final AtomicInteger diskHitCount = new AtomicInteger();
+
+    public void setListener(WaveformListener listener) {
+        this.listener = listener;
+    }
+
+    // Forme d'onde en mémoire, sans attente (null si pas encore calculée)
+    public WaveformPeaks get(String filePath) {
+        return filePath != null ? peaks.get(filePath) : null;
+    }
+
+    // Sample sorti du cache (kit déchargé, fichier retiré d'un kit) : sa forme d'onde quitte
+    // la mémoire. Le fichier .peaks reste sur le disque pour le prochain chargement
+    public void evict(String filePath) {
+        peaks.remove(filePath);
+    }
+
+    // Sample chargé : forme d'onde relue depuis le disque ou calculée en arrière-plan
+    public CompletableFuture<WaveformPeaks> request(Sample sample) {
+        String filePath = sample.getFilePath();
+        WaveformPeaks known = peaks.get(filePath);
+        if (known != null) {
+            return CompletableFuture.completedFuture(known);
+        }
+        CompletableFuture<WaveformPeaks> future;
+        synchronized (this) {
+            future = inFlight.get(filePath);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            inFlight.put(filePath, future);
+        }
+
+        CompletableFuture<WaveformPeaks> pending = future;
+        executor.execute(() -> load(sample, pending));
+        return pending;
+    }
+
+    // Fichier modifié sur le disque : l'ancienne forme d'onde reste affichée jusqu'au nouveau calcul
+    // (le fichier .peaks, daté de l'ancienne version, est ignoré)
+    public CompletableFuture<WaveformPeaks> refresh(Sample sample) {
+        CompletableFuture<WaveformPeaks> future = new CompletableFuture<>();
+        executor.execute(() -> load(sample, future));
+        return future;
+    }
+
+    private void load(Sample sample, CompletableFuture<WaveformPeaks> future) {
+        String filePath = sample.getFilePath();
+        try {
+            Path source = Paths.get(filePath);
+            BasicFileAttributes attributes = null;
+            try {
+                attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            } catch (IOException e) {
+                // Sample d'un bundle .sbk : pas de fichier source, rien à persister
+            }
+
+            WaveformPeaks result = null;
+            if (attributes != null) {
+                result = readPeaks(peaksFileOf(source), attributes);
+                if (result != null) {
+                    diskHitCount.incrementAndGet();
+                }
+            }
+            if (result == null) {
+                result = WaveformPeaks.compute(sample);
+                computeCount.incrementAndGet();
+                if (attributes != null) {
+                    writePeaks(peaksFileOf(source), attributes, result);
+                }
+            }
+            peaks.put(filePath, result);
+            future.complete(result);
+
+            WaveformListener current = listener;
+            if (current != null) {
+                current.onWaveformReady(filePath);
+            }
+        } catch (Throwable e) {
+            System.err.println("Cannot compute waveform of " + filePath + ": " + e.getMessage());
+            future.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                inFlight.remove(filePath, future);
+            }
+        }
+    }
+
+    // sounds/metal/metalkick.wav → sounds/metal/.peaks/metalkick.wav.peaks
+    public static Path peaksFileOf(Path source) {
+        return source.resolveSibling(FOLDER_NAME).resolve(source.getFileName() + EXTENSION);
+    }
+
+    // null si absent, périmé ou illisible (il sera recalculé)
+    private static WaveformPeaks readPeaks(Path file, BasicFileAttributes source) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != source.lastModifiedTime().toMillis() || in.readLong() != source.size()) {
+                return null;
+            }
+            return WaveformPeaks.read(in);
+        } catch (IOException e) {
+            System.err.println("Error reading waveform " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Fichier temporaire puis renommage ; un dossier en lecture seule n'empêche pas l'affichage
+    private static void writePeaks(Path file, BasicFileAttributes source, WaveformPeaks result) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(source.lastModifiedTime().toMillis());
+                out.writeLong(source.size());
+                result.write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error saving waveform " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Getters
+    public int size() { return peaks.size(); }
+    public int getComputeCount() { return computeCount.get(); }
+    public int getDiskHitCount() { return diskHitCount.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("WaveformCache{samples=%d, computed=%d, fromDisk=%d}",
+                           peaks.size(), computeCount.get(), diskHitCount.get());
+    }
+}
@@ -0,0 +1,242 @@
+package com.soundboard.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// 〰️ Pyramide min/max d'un sample pour dessiner sa forme d'onde sans relire le PCM.
+// Niveau 0 : un couple min/max (les deux canaux confondus) par paquet de BASE_BUCKET_FRAMES
+// frames ; chaque niveau suivant fusionne deux paquets du précédent, jusqu'à un seul paquet.
+// Les niveaux sont quantifiés sur un octet signé (±127) : ~4 octets pour 16 frames au total.
+public class WaveformPeaks {
+    public static final int BASE_BUCKET_FRAMES = 16;
+    private static final int CHUNK_FRAMES = 8192;
+
+    private final int frameLength;
+    private final byte[][] mins; // mins[niveau][paquet]
+    private final byte[][] maxs;
+
+    private WaveformPeaks(int frameLength, byte[][] mins, byte[][] maxs) {
+        this.frameLength = frameLength;
+        this.mins = mins;
+        this.maxs = maxs;
+    }
+
+    // Calcul depuis le sample chargé (heap ou hors heap). Un sample streamé n'a que sa tête
+    // en mémoire : la suite est lue depuis le fichier par blocs. Idem pour un sample retiré
+    // (kit déchargé) dont la mémoire peut être rendue à tout moment.
+    public static WaveformPeaks compute(Sample sample) throws Exception {
+        if (sample.isStreamed() || !sample.acquire()) {
+            return computeFromFile(sample.getFilePath());
+        }
+        try {
+            Builder builder = new Builder(sample.getFrameLength());
+            int frames = sample.getFrameLength();
+            if (sample.isOffHeap()) {
+                ByteBuffer left = sample.getLeftBuffer();
+                ByteBuffer right = sample.getRightBuffer();
+                for (int i = 0; i < frames; i++) {
+                    builder.add(left.getFloat(i * Float.BYTES), right.getFloat(i * Float.BYTES));
+                }
+            } else {
+                float[] left = sample.getLeft();
+                float[] right = sample.getRight();
+                for (int i = 0; i < frames; i++) {
+                    builder.add(left[i], right[i]);
+                }
+            }
+            return builder.build();
+        } finally {
+            sample.release();
+        }
+    }
+
+    // Fichier PCM lu par blocs (jamais en entier en mémoire), frames à la fréquence du fichier
+    static WaveformPeaks computeFromFile(String filePath) throws Exception {
+        try (AudioInputStream in = SampleDecoder.openPcm(filePath)) {
+            AudioFormat format = in.getFormat();
+            int channels = format.getChannels();
+            int frameSize = format.getFrameSize();
+            byte[] bytes = new byte[CHUNK_FRAMES * frameSize];
+            float[] interleaved = new float[CHUNK_FRAMES * channels];
+
+            long frameCount = in.getFrameLength();
+            Builder builder = new Builder(frameCount > 0 && frameCount <= Integer.MAX_VALUE ? (int) frameCount : 0);
+            int read;
+            while ((read = in.readNBytes(bytes, 0, bytes.length)) > 0) {
+                int readFrames = read / frameSize;
+                SampleConverter.toFloats(bytes, readFrames * frameSize, format, interleaved, 0);
+                for (int i = 0; i < readFrames; i++) {
+                    int base = i * channels;
+                    builder.add(interleaved[base], interleaved[base + (channels > 1 ? 1 : 0)]);
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    // 🎨 Remplit minOut/maxOut (dans [-1, 1]) pour `pixels` colonnes couvrant [startFrame, endFrame).
+    // Le niveau choisi a des paquets d'au moins un demi-pixel : chaque colonne en lit au plus trois,
+    // le coût ne dépend que du nombre de pixels, quel que soit le zoom. Aucune allocation.
+    // Les colonnes hors du sample valent 0.
+    public void render(long startFrame, long endFrame, int pixels, float[] minOut, float[] maxOut) {
+        if (pixels <= 0 || endFrame <= startFrame) return;
+        double framesPerPixel = (double) (endFrame - startFrame) / pixels;
+
+        int level = 0;
+        while (level + 1 < mins.length && ((long) BASE_BUCKET_FRAMES << (level + 1)) <= framesPerPixel) {
+            level++;
+        }
+        long bucketFrames = (long) BASE_BUCKET_FRAMES << level;
+        byte[] levelMins = mins[level];
+        byte[] levelMaxs = maxs[level];
+        int buckets = levelMins.length;
+
+        for (int p = 0; p < pixels; p++) {
+            long from = startFrame + (long) (p * framesPerPixel);
+            long to = Math.max(from + 1, startFrame + (long) ((p + 1) * framesPerPixel));
+            from = Math.max(0, from);
+            to = Math.min(frameLength, to);
+            if (from >= to) {
+                minOut[p] = 0f;
+                maxOut[p] = 0f;
+                continue;
+            }
+            int first = (int) (from / bucketFrames);
+            int last = (int) Math.min(buckets - 1, (to - 1) / bucketFrames);
+            int min = Byte.MAX_VALUE;
+            int max = Byte.MIN_VALUE;
+            for (int b = first; b <= last; b++) {
+                min = Math.min(min, levelMins[b]);
+                max = Math.max(max, levelMaxs[b]);
+            }
+            minOut[p] = min / 127f;
+            maxOut[p] = max / 127f;
+        }
+    }
+
+    // Getters
+    public int getFrameLength() { return frameLength; }
+    public int getLevelCount() { return mins.length; }
+
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (byte[] level : mins) {
+            bytes += 2L * level.length;
+        }
+        return bytes;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(frameLength);
+        out.writeInt(mins.length);
+        for (int level = 0; level < mins.length; level++) {
+            out.writeInt(mins[level].length);
+            out.write(mins[level]);
+            out.write(maxs[level]);
+        }
+    }
+
+    static WaveformPeaks read(DataInputStream in) throws IOException {
+        int frameLength = in.readInt();
+        int levels = in.readInt();
+        if (frameLength < 0 || levels < 1 || levels > 32) {
+            throw new IOException("Corrupted waveform peaks");
+        }
+        byte[][] mins = new byte[levels][];
+        byte[][] maxs = new byte[levels][];
+        for (int level = 0; level < levels; level++) {
+            int buckets = in.readInt();
+            if (buckets < 1 || buckets > frameLength / ((long) BASE_BUCKET_FRAMES << level) + 1) {
+                throw new IOException("Corrupted waveform peaks");
+            }
+            mins[level] = new byte[buckets];
+            maxs[level] = new byte[buckets];
+            in.readFully(mins[level]);
+            in.readFully(maxs[level]);
+        }
+        return new WaveformPeaks(frameLength, mins, maxs);
+    }
+
+    // Accumule les frames une à une ; les niveaux supérieurs sont construits à la fin
+    private static final class Builder {
+        private byte[] mins;
+        private byte[] maxs;
+        private int buckets = 0;
+        private int frames = 0;
+        private float bucketMin = Float.POSITIVE_INFINITY;
+        private float bucketMax = Float.NEGATIVE_INFINITY;
+
+        Builder(int expectedFrames) {
+            int capacity = Math.max(16, expectedFrames / BASE_BUCKET_FRAMES + 1);
+            mins = new byte[capacity];
+            maxs = new byte[capacity];
+        }
+
+        void add(float left, float right) {
+            bucketMin = Math.min(bucketMin, Math.min(left, right));
+            bucketMax = Math.max(bucketMax, Math.max(left, right));
+            if (++frames % BASE_BUCKET_FRAMES == 0) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (buckets == mins.length) {
+                mins = Arrays.copyOf(mins, buckets * 2);
+                maxs = Arrays.copyOf(maxs, buckets * 2);
+            }
+            // Arrondi vers l'extérieur : un transitoire faible reste visible
+            mins[buckets] = quantize((float) Math.floor(bucketMin * 127f));
+            maxs[buckets] = quantize((float) Math.ceil(bucketMax * 127f));
+            buckets++;
+            bucketMin = Float.POSITIVE_INFINITY;
+            bucketMax = Float.NEGATIVE_INFINITY;
+        }
+
+        WaveformPeaks build() {
+            if (frames % BASE_BUCKET_FRAMES != 0 || buckets == 0) {
+                if (frames % BASE_BUCKET_FRAMES == 0) { // sample vide : un paquet silencieux
+                    bucketMin = 0f;
+                    bucketMax = 0f;
+                }
+                flush();
+            }
+            int levels = 1;
+            for (int n = buckets; n > 1; n = (n + 1) / 2) {
+                levels++;
+            }
+            byte[][] levelMins = new byte[levels][];
+            byte[][] levelMaxs = new byte[levels][];
+            levelMins[0] = Arrays.copyOf(mins, buckets);
+            levelMaxs[0] = Arrays.copyOf(maxs, buckets);
+            for (int level = 1; level < levels; level++) {
+                byte[] lowerMins = levelMins[level - 1];
+                byte[] lowerMaxs = levelMaxs[level - 1];
+                int count = (lowerMins.length + 1) / 2;
+                levelMins[level] = new byte[count];
+                levelMaxs[level] = new byte[count];
+                for (int b = 0; b < count; b++) {
+                    int second = Math.min(2 * b + 1, lowerMins.length - 1);
+                    levelMins[level][b] = (byte) Math.min(lowerMins[2 * b], lowerMins[second]);
+                    levelMaxs[level][b] = (byte) Math.max(lowerMaxs[2 * b], lowerMaxs[second]);
+                }
+            }
+            return new WaveformPeaks(frames, levelMins, levelMaxs);
+        }
+
+        private static byte quantize(float value) {
+            return (byte) Math.max(-127, Math.min(127, (int) value));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WaveformPeaks{frames=%d, levels=%d, size=%d bytes}",
+                           frameLength, mins.length, getSizeInBytes());
+    }
+}
@@ -0,0 +1,242 @@
+package com.soundboard.model;
+
+import com.soundboard.audio.Sample;
+import com.soundboard.audio.SampleDecoder;
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 📦 Bundle de kit (.sbk) : métadonnées du kit + tous les samples déjà décodés au format du moteur.
+//
+//   int    magic 'SBKT'
+//   int    version
+//   int    taille de l'en-tête
+//   en-tête (DataOutputStream) : nom, description, dossier, pads (métadonnées + format + offset des données)
+//   données alignées sur 64 octets : floats little-endian au format du moteur
+//   (stéréo planaire à AudioEngine.SAMPLE_RATE), un bloc L puis un bloc R par pad (L seul si mono)
+//
+// À l'ouverture, la zone de données est mappée (FileChannel.map) : les samples sont
+// lus directement dans le page cache, à la demande, sans copie sur le heap.
+public class KitBundle {
+    public static final String EXTENSION = ".sbk";
+    private static final int MAGIC = 0x53424B54; // "SBKT"
+    private static final int VERSION = 2; // v2 : format du moteur (planaire, fréquence convertie)
+    private static final int ALIGNMENT = 64;
+
+    private final Path file;
+    private final SoundKit kit;
+    private final Map<String, Sample> samples; // clé = SoundPad.getFilePath()
+    private final long mappedBytes;
+
+    private KitBundle(Path file, SoundKit kit, Map<String, Sample> samples, long mappedBytes) {
+        this.file = file;
+        this.kit = kit;
+        this.samples = samples;
+        this.mappedBytes = mappedBytes;
+    }
+
+    // Getters
+    public Path getFile() { return file; }
+    public SoundKit getKit() { return kit; }
+    public long getMappedBytes() { return mappedBytes; }
+    public Map<String, Sample> getSamples() { return Collections.unmodifiableMap(samples); }
+
+    // Sample mappé d'un pad, null si le pad n'a pas de données dans le bundle
+    public Sample getSample(String filePath) {
+        return samples.get(filePath);
+    }
+
+    public static KitBundle open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(12);
+            readFully(channel, prefix, 0);
+            prefix.flip();
+            if (prefix.getInt() != MAGIC) {
+                throw new IOException("Not a kit bundle: " + file);
+            }
+            int version = prefix.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported kit bundle version " + version + " (save the kit again): " + file);
+            }
+            int headerLength = prefix.getInt();
+
+            ByteBuffer header = ByteBuffer.allocate(headerLength);
+            readFully(channel, header, 12);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(header.array()));
+
+            SoundKit kit = new SoundKit(in.readUTF(), in.readUTF(), in.readUTF());
+            int padCount = in.readInt();
+            long dataStart = align(12 + headerLength);
+            long dataLength = channel.size() - dataStart;
+            if (dataLength > Integer.MAX_VALUE) {
+                throw new IOException("Kit bundle too large to map (" + dataLength + " bytes): " + file);
+            }
+
+            // Un seul mapping pour tout le kit ; il reste valide après la fermeture du channel
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, Math.max(0, dataLength));
+            Map<String, Sample> samples = new HashMap<>();
+
+            for (int i = 0; i < padCount; i++) {
+                SoundPad pad = new SoundPad(in.readUTF(), in.readUTF(),
+                                            new Color(in.readInt()), in.readFloat(), null);
+                pad.setEnabled(in.readBoolean());
+                pad.setDescription(in.readUTF());
+                boolean mono = in.readBoolean();
+                long offset = in.readLong();
+                int frames = in.readInt();
+                kit.addPad(pad);
+
+                if (frames <= 0) continue; // pad sans données : décodé depuis son fichier
+                long channelBytes = (long) frames * Float.BYTES;
+                long rightOffset = mono ? offset : align(offset + channelBytes);
+                if (offset < 0 || rightOffset + channelBytes > data.capacity()) {
+                    throw new IOException("Corrupted kit bundle (pad " + pad.getName() + "): " + file);
+                }
+
+                ByteBuffer left = channelView(data, offset, frames);
+                ByteBuffer right = mono ? left : channelView(data, rightOffset, frames);
+                samples.put(pad.getFilePath(), new Sample(pad.getFilePath(), left, right));
+            }
+            return new KitBundle(file, kit, samples, data.capacity());
+        }
+    }
+
+    private static ByteBuffer channelView(MappedByteBuffer data, long offset, int frames) {
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) offset).limit((int) offset + frames * Float.BYTES);
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Décode les samples du kit et écrit le bundle (fichier temporaire puis renommage)
+    public static void write(SoundKit kit, Path file) throws IOException {
+        List<SoundPad> pads = kit.getPads();
+        List<Sample> decoded = new ArrayList<>();
+        for (SoundPad pad : pads) {
+            Sample sample = null;
+            try {
+                sample = SampleDecoder.decode(pad.getFilePath());
+            } catch (Exception e) {
+                System.err.println("Bundle " + kit.getName() + ": no audio for pad " + pad.getName()
+                                   + " (" + e.getMessage() + ")");
+            }
+            decoded.add(sample);
+        }
+
+        // En-tête, avec les offsets relatifs au début de la zone de données
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(headerBytes);
+        out.writeUTF(kit.getName());
+        out.writeUTF(kit.getDescription());
+        out.writeUTF(kit.getKitPath());
+        out.writeInt(pads.size());
+
+        long offset = 0;
+        long[] offsets = new long[pads.size()];
+        for (int i = 0; i < pads.size(); i++) {
+            SoundPad pad = pads.get(i);
+            Sample sample = decoded.get(i);
+            out.writeUTF(pad.getName());
+            out.writeUTF(pad.getFilePath());
+            out.writeInt(pad.getCustomColor().getRGB());
+            out.writeFloat(pad.getVolume());
+            out.writeBoolean(pad.isEnabled());
+            out.writeUTF(pad.getDescription());
+            boolean mono = sample != null && sample.getLeft() == sample.getRight();
+            out.writeBoolean(mono);
+            out.writeLong(offset);
+            out.writeInt(sample != null ? sample.getFrameLength() : 0);
+
+            offsets[i] = offset;
+            if (sample != null) {
+                long channelBytes = (long) sample.getFrameLength() * Float.BYTES;
+                offset = align(offset + channelBytes);
+                if (!mono) {
+                    offset = align(offset + channelBytes);
+                }
+            }
+        }
+        out.flush();
+        byte[] header = headerBytes.toByteArray();
+        long dataStart = align(12 + header.length);
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer prefix = ByteBuffer.allocate(12);
+            prefix.putInt(MAGIC).putInt(VERSION).putInt(header.length).flip();
+            writeFully(channel, prefix, 0);
+            writeFully(channel, ByteBuffer.wrap(header), 12);
+
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < pads.size(); i++) {
+                Sample sample = decoded.get(i);
+                if (sample == null) continue;
+
+                long position = dataStart + offsets[i];
+                writeFloats(channel, chunk, sample.getLeft(), position);
+                if (sample.getRight() != sample.getLeft()) {
+                    writeFloats(channel, chunk, sample.getRight(),
+                                position + align((long) sample.getFrameLength() * Float.BYTES));
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFloats(FileChannel channel, ByteBuffer chunk, float[] data, long position)
+            throws IOException {
+        int index = 0;
+        while (index < data.length) {
+            chunk.clear();
+            int count = Math.min(data.length - index, chunk.capacity() / Float.BYTES);
+            for (int j = 0; j < count; j++) {
+                chunk.putFloat(data[index++]);
+            }
+            chunk.flip();
+            position += writeFully(channel, chunk, position);
+        }
+    }
+
+    private static long align(long value) {
+        return (value + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Truncated kit bundle");
+            }
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KitBundle{file='%s', kit='%s', samples=%d, mapped=%d bytes}",
+                           file, kit.getName(), samples.size(), mappedBytes);
+    }
+}
@@ -0,0 +1,119 @@
+package com.soundboard.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// 📂 Construit un SoundKit à partir d'un dossier de sons.
+// Sans manifeste : un pad par fichier audio (ordre alphabétique, 9 au plus), nommé d'après le fichier.
+// Avec un kit.txt : nom, description et ordre des pads fixés à la main, par exemple
+//   name=Metal
+//   description=Kit de sons metal brutal
+//   metalkick.wav=MetalKick
+final class KitDiscovery {
+    static final String MANIFEST = "kit.txt";
+    static final String DEFAULT_KIT_NAME = "Default";
+    private static final int MAX_PADS = 9;
+
+    private KitDiscovery() {}
+
+    static boolean isAudioFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".wav") || name.endsWith(".mp3");
+    }
+
+    static boolean isManifest(Path file) {
+        return file.getFileName().toString().equals(MANIFEST);
+    }
+
+    // Les dossiers cachés (.peaks des formes d'onde...) ne sont pas des kits
+    static boolean isKitFolder(Path folder) {
+        return Files.isDirectory(folder) && !folder.getFileName().toString().startsWith(".");
+    }
+
+    // kitPath : préfixe des chemins des pads ("sounds/metal/"), clé du cache de samples.
+    // Retourne null si le dossier ne contient aucun son.
+    static SoundKit scan(Path folder, String kitPath, boolean root) throws IOException {
+        String name = root ? DEFAULT_KIT_NAME : capitalize(folder.getFileName().toString());
+        String description = root ? "Kit de sons par défaut" : "Kit " + name;
+        List<SoundPad> pads = new ArrayList<>();
+
+        Path manifest = folder.resolve(MANIFEST);
+        if (Files.isRegularFile(manifest)) {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                int separator = line.indexOf('=');
+                if (line.isEmpty() || line.startsWith("#") || separator < 0) continue;
+
+                String key = line.substring(0, separator).trim();
+                String value = line.substring(separator + 1).trim();
+                if (key.equals("name")) {
+                    name = value;
+                } else if (key.equals("description")) {
+                    description = value;
+                } else if (Files.isRegularFile(folder.resolve(key))) {
+                    pads.add(new SoundPad(value, kitPath + key));
+                } else {
+                    System.err.println("Missing audio file in " + manifest + ": " + key);
+                }
+            }
+        } else {
+            for (Path file : listAudioFiles(folder)) {
+                String fileName = file.getFileName().toString();
+                pads.add(new SoundPad(capitalize(stripExtension(fileName)), kitPath + fileName));
+            }
+        }
+
+        if (pads.isEmpty()) {
+            return null;
+        }
+        SoundKit kit = new SoundKit(name, description, kitPath);
+        for (SoundPad pad : pads.subList(0, Math.min(MAX_PADS, pads.size()))) {
+            kit.addPad(pad);
+        }
+        return kit;
+    }
+
+    private static List<Path> listAudioFiles(Path folder) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry) && isAudioFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    // Deux kits sont identiques pour l'UI et le séquenceur si nom, description et pads le sont
+    static boolean sameLayout(SoundKit a, SoundKit b) {
+        if (!a.getName().equals(b.getName()) || !a.getDescription().equals(b.getDescription())
+                || a.getPadCount() != b.getPadCount()) {
+            return false;
+        }
+        for (int i = 0; i < a.getPadCount(); i++) {
+            SoundPad padA = a.getPad(i);
+            SoundPad padB = b.getPad(i);
+            if (!padA.getName().equals(padB.getName()) || !padA.getFilePath().equals(padB.getFilePath())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    private static String capitalize(String text) {
+        return text.isEmpty() ? text : text.substring(0, 1).toUpperCase(Locale.ROOT) + text.substring(1);
+    }
+}
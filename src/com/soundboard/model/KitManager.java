@@ -1,31 +1,92 @@
 package com.soundboard.model;
 
+import com.soundboard.audio.Sample;
+import com.soundboard.audio.SampleCache;
+import com.soundboard.audio.SampleIndex;
+import com.soundboard.audio.WaveformCache;
+import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class KitManager {
     private Map<String, SoundKit> kits;
-    private SoundKit currentKit;
+    private volatile SoundKit currentKit;
     private static final String KITS_DIRECTORY = "kits/";
     private static final String SOUNDS_DIRECTORY = "sounds/";
+
+    // Kits chargés depuis un bundle .sbk (nom du kit → bundle mappé).
+    // Écrit sous le verrou (registerBundle), lu sans verrou (préchargement, watcher, getBundle)
+    private final Map<String, KitBundle> bundles = new ConcurrentHashMap<>();
+    // Kits découverts dans sounds/ (dossier → nom du kit)
+    private final Map<Path, String> folderKits = new HashMap<>();
+    // Kits dont les samples sont retenus dans le cache (preloadKit → unloadKit)
+    private final Set<String> loadedKits = ConcurrentHashMap.newKeySet();
+
+    // Métadonnées des samples, persistées dans sounds/.sampleindex
+    private final SampleIndex sampleIndex = SampleIndex.open(Paths.get(SOUNDS_DIRECTORY, SampleIndex.FILE_NAME));
+    // Vérification des fichiers à la demande de l'UI (refreshSampleIndex), jamais en headless ni en bench :
+    // un thread à basse priorité, à part du décodage des samples
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "sample-index");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private volatile CompletableFuture<Void> sampleIndexRefresh = CompletableFuture.completedFuture(null);
+    // Formes d'onde pour l'UI, calculées après le chargement de chaque sample (sounds/<kit>/.peaks/).
+    // Désactivées par défaut : ni calcul ni fichier .peaks en headless ou en bench
+    private final WaveformCache waveforms = new WaveformCache();
+    private volatile boolean waveformsEnabled = false;
+
+    // Rechargement à chaud (startWatching)
+    private KitWatcher watcher;
+    private volatile SampleCache watchedCache;
+    private volatile KitChangeListener kitChangeListener;
+
+    // Décodage des samples en parallèle, un pad par tâche (threads daemon)
+    private final ForkJoinPool loaderPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // Progression du préchargement (appelé depuis les threads de chargement)
+    public interface KitLoadListener {
+        void onPadLoaded(SoundKit kit, SoundPad pad, int loadedPads, int totalPads);
+
+        default void onKitLoaded(SoundKit kit) {}
+    }
+
+    // Kit ajouté, modifié ou supprimé sur le disque (getKit(kitName) == null : supprimé)
+    public interface KitChangeListener {
+        void onKitChanged(String kitName);
+
+        // Fichier audio créé ou modifié (même chemin que SoundPad.getFilePath())
+        default void onSampleChanged(String filePath) {}
+    }
     
     public KitManager() {
         this.kits = new LinkedHashMap<>(); // Preserve order
-        loadDefaultKits();
+        discoverKits();
         loadKitsFromFiles();
+        // Métadonnées connues tout de suite, sans accès aux samples (voir refreshSampleIndex)
+        attachSampleInfo(getAllKits(), false);
     }
     
     // Getters
     public SoundKit getCurrentKit() { return currentKit; }
-    public Set<String> getKitNames() { return kits.keySet(); }
-    public Collection<SoundKit> getAllKits() { return kits.values(); }
+    // Copies : la liste peut changer depuis le thread du watcher
+    public synchronized Set<String> getKitNames() { return new LinkedHashSet<>(kits.keySet()); }
+    public synchronized Collection<SoundKit> getAllKits() { return new ArrayList<>(kits.values()); }
     
     // Gestion des kits
-    public SoundKit getKit(String name) {
+    public synchronized SoundKit getKit(String name) {
         return kits.get(name);
     }
     
-    public boolean addKit(SoundKit kit) {
+    public synchronized boolean addKit(SoundKit kit) {
         if (kit != null && !kits.containsKey(kit.getName())) {
             kits.put(kit.getName(), kit);
             return true;
@@ -33,7 +94,7 @@ public class KitManager {
         return false;
     }
     
-    public boolean removeKit(String name) {
+    public synchronized boolean removeKit(String name) {
         if (kits.containsKey(name) && kits.size() > 1) { // Garder au moins un kit
             kits.remove(name);
             // Si on supprime le kit actuel, changer vers le premier disponible
@@ -45,125 +106,433 @@ public class KitManager {
         return false;
     }
     
-    public boolean switchToKit(String name) {
+    public synchronized boolean switchToKit(String name) {
         SoundKit kit = kits.get(name);
         if (kit != null) {
+            KitSwitchEvent event = new KitSwitchEvent();
+            if (event.shouldCommit()) {
+                event.from = currentKit != null ? currentKit.getName() : null;
+                event.to = name;
+                event.pads = kit.getPadCount();
+                event.bundled = bundles.containsKey(name);
+                event.commit();
+            }
             currentKit = kit;
-            System.out.println("Switched to kit: " + name);
             return true;
         }
         return false;
     }
     
-    // Chargement des kits par défaut (celui qui existe déjà)
-    private void loadDefaultKits() {
-        // Kit par défaut basé sur votre soundboard actuel
-        SoundKit defaultKit = new SoundKit("Default", "Kit de sons par défaut", SOUNDS_DIRECTORY);
-        
-        // Vos sons actuels
-        String[] soundFiles = {
-            "kick.wav", "snare.wav", "pluck.wav",
-            "slap.wav", "hihat.wav", "clap.wav", 
-            "healing.wav", "netflix.wav", "lazer.wav"
-        };
-        
-        String[] padNames = {
-            "Kick", "Snare", "Pluck",
-            "Slap", "HiHat", "Clap",
-            "Healing", "Netflix", "Lazer"
-        };
-        
-        for (int i = 0; i < soundFiles.length; i++) {
-            String fullPath = SOUNDS_DIRECTORY + soundFiles[i];
-            SoundPad pad = new SoundPad(padNames[i], fullPath);
-            defaultKit.addPad(pad);
+    // ⚡ Préchargement asynchrone : chaque pad est décodé en parallèle dans le cache.
+    // Le future se termine quand tous les pads du kit ont été traités (même en erreur).
+    // Pour un kit en bundle, les samples mappés vont directement dans le cache (aucun décodage).
+    // Les samples décodés sont copiés hors heap et retenus jusqu'à unloadKit().
+    // Leur forme d'onde est ensuite préparée en arrière-plan si l'UI l'a demandé (setWaveformsEnabled).
+    public CompletableFuture<SoundKit> preloadKit(SoundKit kit, SampleCache cache, KitLoadListener listener) {
+        loadedKits.add(kit.getName());
+        List<SoundPad> pads = kit.getPads();
+        KitBundle bundle = bundles.get(kit.getName());
+        AtomicInteger loadedPads = new AtomicInteger();
+        CompletableFuture<?>[] padLoads = new CompletableFuture<?>[pads.size()];
+
+        for (int i = 0; i < pads.size(); i++) {
+            SoundPad pad = pads.get(i);
+            Sample mapped = bundle != null ? bundle.getSample(pad.getFilePath()) : null;
+            CompletableFuture<Sample> load;
+            if (mapped != null) {
+                load = CompletableFuture.completedFuture(cache.retain(kit.getName(), mapped));
+            } else {
+                // Copie hors heap sur le pool, jamais sur le thread appelant (EDT si déjà en cache)
+                load = cache.getAsync(pad.getFilePath(), loaderPool)
+                            .thenApplyAsync(sample -> cache.retain(kit.getName(), sample), loaderPool);
+            }
+            padLoads[i] = load.handle((sample, error) -> {
+                if (error != null) {
+                    System.err.println("Error loading sample " + pad.getFilePath() + ": " + error.getMessage());
+                } else if (waveformsEnabled) {
+                    waveforms.request(sample);
+                }
+                int loaded = loadedPads.incrementAndGet();
+                if (listener != null) {
+                    listener.onPadLoaded(kit, pad, loaded, pads.size());
+                }
+                return null;
+            });
         }
-        
-        addKit(defaultKit);
-        
-        // Kit Metal
-        SoundKit metalKit = new SoundKit("Metal", "Kit de sons metal brutal", SOUNDS_DIRECTORY + "metal/");
-        
-        String[] metalSounds = {
-            "metalkick.wav", "grindcoresnare.wav", "ride.wav", 
-            "china.wav","note1.wav", "note2.wav", 
-            "note3.wav", "note4.wav", "note5.wav"
-        };
-        
-        String[] metalNames = {
-            "MetalKick", "GrindSnare", "Ride", 
-            "China", "Note 1", "Note 2", 
-            "Note 3", "Note 4", "Note 5"
-        };
-        
-        for (int i = 0; i < metalSounds.length; i++) {
-            String fullPath = SOUNDS_DIRECTORY + "metal/" + metalSounds[i];
-            SoundPad pad = new SoundPad(metalNames[i], fullPath);
-            metalKit.addPad(pad);
-        }
-        addKit(metalKit);
-
-        //-------
-        // Kit test
-        SoundKit testKit = new SoundKit("Test", "Kit Test", SOUNDS_DIRECTORY + "test/");
-
-        String[] testSounds = {
-            "a.wav", "b.wav", "c.wav", 
-            "d.wav", "e.wav", "f.wav", 
-            "g.wav", "h.wav", "i.wav"
-        };
-        
-        String[] testNames = {
-            "A", "B", "C", 
-            "D", "E", "F", 
-            "G", "H", "I"
-        };
-        
-        
-        for (int i = 0; i < testSounds.length; i++) {
-            String fullPath = SOUNDS_DIRECTORY + "test/" + testSounds[i];
-            SoundPad pad = new SoundPad(testNames[i], fullPath);
-            testKit.addPad(pad);
+
+        return CompletableFuture.allOf(padLoads).thenApply(v -> {
+            if (listener != null) {
+                listener.onKitLoaded(kit);
+            }
+            return kit;
+        });
+    }
+
+    // 🗂️ Vérifie tous les pads contre l'index (un stat par fichier, probe si modifié) puis le sauvegarde.
+    // En arrière-plan sur le thread "sample-index" ; les fichiers modifiés sont relus un par un
+    public CompletableFuture<Void> refreshSampleIndex() {
+        Collection<SoundKit> all = getAllKits();
+        CompletableFuture<Void> refresh = CompletableFuture.runAsync(() -> attachSampleInfo(all, true), indexExecutor);
+        sampleIndexRefresh = refresh;
+        return refresh;
+    }
+
+    // Dernière vérification demandée (déjà terminée si refreshSampleIndex n'a jamais été appelé)
+    public CompletableFuture<Void> getSampleIndexRefresh() { return sampleIndexRefresh; }
+    public SampleIndex getSampleIndex() { return sampleIndex; }
+    public WaveformCache getWaveforms() { return waveforms; }
+
+    // L'UI affiche les formes d'onde : calculées pour les kits chargés à partir de maintenant
+    public void setWaveformsEnabled(boolean enabled) { this.waveformsEnabled = enabled; }
+
+    // refresh = false : index seul, sans accès disque.
+    // refresh = true : fichiers vérifiés sur le thread appelant (sample-index ou watcher), pas sur loaderPool
+    private void attachSampleInfo(Collection<SoundKit> kitList, boolean refresh) {
+        Set<String> paths = new LinkedHashSet<>();
+        for (SoundKit kit : kitList) {
+            for (SoundPad pad : kit.getPads()) {
+                paths.add(pad.getFilePath());
+            }
         }
-        addKit(testKit);
+        if (refresh) {
+            sampleIndex.refreshAll(paths, Runnable::run).join();
+        }
+        for (SoundKit kit : kitList) {
+            for (SoundPad pad : kit.getPads()) {
+                pad.setSampleInfo(sampleIndex.get(pad.getFilePath()));
+            }
+        }
+        if (refresh) {
+            try {
+                sampleIndex.save();
+            } catch (IOException e) {
+                System.err.println("Error saving sample index: " + e.getMessage());
+            }
+        }
+    }
+
+    // Libère les samples du kit (sauf ceux encore utilisés par un autre kit chargé).
+    // Les voix en cours gardent leur sample jusqu'à la fin, puis la mémoire hors heap est rendue.
+    public void unloadKit(SoundKit kit, SampleCache cache) {
+        unloadKit(kit.getName(), cache);
+    }
+
+    private void unloadKit(String kitName, SampleCache cache) {
+        if (loadedKits.remove(kitName)) {
+            // Formes d'onde des samples rendus par le store, et de ceux qu'il ne retient pas (streamés)
+            Set<String> unused = new HashSet<>(cache.release(kitName));
+            SoundKit kit = getKit(kitName);
+            if (kit != null) {
+                for (SoundPad pad : kit.getPads()) {
+                    unused.add(pad.getFilePath());
+                }
+            }
+            for (String loaded : loadedKits) {
+                SoundKit other = getKit(loaded);
+                if (other == null) continue;
+                for (SoundPad pad : other.getPads()) {
+                    unused.remove(pad.getFilePath());
+                }
+            }
+            for (String filePath : unused) {
+                waveforms.evict(filePath);
+            }
+            System.out.println("Kit unloaded: " + kitName);
+        }
+    }
+
+    // Décharge tous les kits chargés sauf ceux encore utilisés (pads, séquenceur...)
+    public void unloadKitsExcept(Collection<SoundKit> inUse, SampleCache cache) {
+        Set<String> keep = new HashSet<>();
+        for (SoundKit kit : inUse) {
+            if (kit != null) {
+                keep.add(kit.getName());
+            }
+        }
+        for (String kitName : new ArrayList<>(loadedKits)) {
+            if (!keep.contains(kitName)) {
+                unloadKit(kitName, cache);
+            }
+        }
+    }
 
-        //------
-        currentKit = defaultKit; // Kit par défaut au démarrage
-        //------
+    public boolean isLoaded(SoundKit kit) {
+        return loadedKits.contains(kit.getName());
+    }
+
+    // Précharge tous les kits, le kit courant en premier
+    public CompletableFuture<Void> preloadAllKits(SampleCache cache, KitLoadListener listener) {
+        List<CompletableFuture<SoundKit>> loads = new ArrayList<>();
+        if (currentKit != null) {
+            loads.add(preloadKit(currentKit, cache, listener));
+        }
+        for (SoundKit kit : getAllKits()) {
+            if (kit != currentKit) {
+                loads.add(preloadKit(kit, cache, listener));
+            }
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
     }
     
-    // Chargement des kits depuis fichiers (à implémenter plus tard avec JSON)
-    private void loadKitsFromFiles() {
-        try {
-            Path kitsDir = Paths.get(KITS_DIRECTORY);
-            if (Files.exists(kitsDir) && Files.isDirectory(kitsDir)) {
-                // Future: Implémenter le chargement JSON
-                System.out.println("Kits directory found: " + KITS_DIRECTORY);
+    // 📂 Découverte des kits : sounds/ (kit "Default") et chacun de ses sous-dossiers,
+    // un dossier par tâche sur le pool de chargement. Voir KitDiscovery pour le manifeste kit.txt.
+    private void discoverKits() {
+        Path root = Paths.get(SOUNDS_DIRECTORY);
+        if (!Files.isDirectory(root)) {
+            System.err.println("Sounds directory not found: " + root.toAbsolutePath());
+            return;
+        }
+
+        List<Path> folders = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, KitDiscovery::isKitFolder)) {
+            dirs.forEach(folders::add);
+        } catch (IOException e) {
+            System.err.println("Error scanning " + root + ": " + e.getMessage());
+        }
+        folders.sort(null);
+        folders.add(0, root);
+
+        List<CompletableFuture<SoundKit>> scans = new ArrayList<>();
+        for (Path folder : folders) {
+            scans.add(CompletableFuture.supplyAsync(() -> scanFolder(folder), loaderPool));
+        }
+        for (int i = 0; i < folders.size(); i++) {
+            SoundKit kit = scans.get(i).join();
+            if (kit == null) continue;
+            if (addKit(kit)) {
+                folderKits.put(folders.get(i), kit.getName());
             } else {
-                System.out.println("Kits directory not found, using default kit only");
+                System.err.println("Duplicate kit name " + kit.getName() + " in " + folders.get(i) + ", ignored");
             }
-        } catch (Exception e) {
-            System.err.println("Error loading kits: " + e.getMessage());
         }
+
+        SoundKit defaultKit = kits.get(KitDiscovery.DEFAULT_KIT_NAME);
+        currentKit = defaultKit != null || kits.isEmpty() ? defaultKit : kits.values().iterator().next();
+    }
+
+    private SoundKit scanFolder(Path folder) {
+        try {
+            return KitDiscovery.scan(folder, kitPathOf(folder), isSoundsRoot(folder));
+        } catch (IOException e) {
+            System.err.println("Error scanning kit folder " + folder + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isSoundsRoot(Path folder) {
+        return folder.equals(Paths.get(SOUNDS_DIRECTORY));
+    }
+
+    // Préfixe des chemins des pads : même forme que les chemins écrits à la main ("sounds/metal/")
+    private static String kitPathOf(Path folder) {
+        return isSoundsRoot(folder) ? SOUNDS_DIRECTORY : SOUNDS_DIRECTORY + folder.getFileName() + "/";
+    }
+
+    // 👀 Rechargement à chaud : les fichiers ajoutés, modifiés ou supprimés dans sounds/ sont
+    // pris en compte sans redémarrage. Seuls les dossiers touchés sont relus ; un sample modifié
+    // est redécodé en arrière-plan et remplace l'ancien dans le cache (les voix en cours finissent
+    // sur l'ancien). Le listener est appelé depuis le thread du watcher.
+    public synchronized void startWatching(SampleCache cache, KitChangeListener listener) {
+        stopWatching();
+        this.watchedCache = cache;
+        this.kitChangeListener = listener;
+        try {
+            watcher = new KitWatcher(Paths.get(SOUNDS_DIRECTORY), this);
+            watcher.start();
+        } catch (IOException e) {
+            System.err.println("Cannot watch " + SOUNDS_DIRECTORY + ": " + e.getMessage());
+            watcher = null;
+        }
+    }
+
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    // Thread du watcher : samples modifiés puis contenu du dossier
+    void folderChanged(Path folder, Set<Path> changedFiles) {
+        SampleCache cache = watchedCache;
+        KitChangeListener listener = kitChangeListener;
+        for (Path file : changedFiles) {
+            String filePath = kitPathOf(folder) + file.getFileName();
+            if (listener != null) {
+                listener.onSampleChanged(filePath);
+            }
+            if (cache != null && cache.contains(filePath)) {
+                cache.reload(filePath, loaderPool).thenAccept(sample -> {
+                    if (waveformsEnabled) {
+                        waveforms.refresh(sample);
+                    }
+                }).exceptionally(e -> {
+                    System.err.println("Error reloading sample " + filePath + ": " + e.getMessage());
+                    return null;
+                });
+            }
+        }
+
+        SoundKit kit = scanFolder(folder);
+        if (kit == null) {
+            folderRemoved(folder);
+            return;
+        }
+        attachSampleInfo(List.of(kit), true); // relit uniquement les fichiers modifiés
+        SoundKit previous;
+        synchronized (this) {
+            if (bundles.containsKey(kit.getName())) return; // un bundle .sbk a priorité sur le dossier
+            String previousName = folderKits.get(folder);
+            previous = previousName != null ? kits.get(previousName) : null;
+            if (previous != null && KitDiscovery.sameLayout(previous, kit)) {
+                // Mêmes pads : seules les métadonnées des fichiers modifiés changent
+                for (int i = 0; i < kit.getPadCount(); i++) {
+                    previous.getPad(i).setSampleInfo(kit.getPad(i).getSampleInfo());
+                }
+                return;
+            }
+            if (previous == null && kits.containsKey(kit.getName())) {
+                System.err.println("Duplicate kit name " + kit.getName() + " in " + folder + ", ignored");
+                return;
+            }
+
+            if (previous != null && !previous.getName().equals(kit.getName())) {
+                kits.remove(previous.getName()); // renommé dans kit.txt
+            }
+            kits.put(kit.getName(), kit);
+            folderKits.put(folder, kit.getName());
+            if (currentKit == null || currentKit == previous) {
+                currentKit = kit;
+            }
+        }
+        System.out.println("Kit reloaded: " + kit.getName() + " (" + kit.getPadCount() + " pads)");
+
+        // Kit pas chargé (ou nouveau) : rien à recharger, il le sera à sa sélection
+        if (cache == null || previous == null || !loadedKits.contains(previous.getName())) {
+            notifyKitChanged(previous, kit);
+            return;
+        }
+        // Nouveau kit chargé avant de libérer ce que l'ancien était seul à utiliser
+        preloadKit(kit, cache, null).thenRun(() -> {
+            releaseUnused(previous, kit, cache);
+            if (!previous.getName().equals(kit.getName())) {
+                loadedKits.remove(previous.getName());
+            }
+            notifyKitChanged(previous, kit);
+        });
+    }
+
+    // Thread du watcher : dossier supprimé ou vidé de ses sons
+    void folderRemoved(Path folder) {
+        String name;
+        synchronized (this) {
+            name = folderKits.remove(folder);
+            if (name == null || bundles.containsKey(name) || !removeKit(name)) return;
+        }
+        System.out.println("Kit removed: " + name);
+        if (watchedCache != null) {
+            unloadKit(name, watchedCache);
+        }
+        KitChangeListener listener = kitChangeListener;
+        if (listener != null) {
+            listener.onKitChanged(name);
+        }
+    }
+
+    private void releaseUnused(SoundKit previous, SoundKit kit, SampleCache cache) {
+        boolean renamed = !previous.getName().equals(kit.getName());
+        for (SoundPad pad : previous.getPads()) {
+            boolean stillUsed = false;
+            for (SoundPad current : kit.getPads()) {
+                stillUsed |= current.getFilePath().equals(pad.getFilePath());
+            }
+            if ((renamed || !stillUsed) && cache.release(previous.getName(), pad.getFilePath())) {
+                waveforms.evict(pad.getFilePath());
+            }
+        }
+    }
+
+    private void notifyKitChanged(SoundKit previous, SoundKit kit) {
+        KitChangeListener listener = kitChangeListener;
+        if (listener == null) return;
+        if (previous != null && !previous.getName().equals(kit.getName())) {
+            listener.onKitChanged(previous.getName());
+        }
+        listener.onKitChanged(kit.getName());
     }
     
-    // Sauvegarde d'un kit (à implémenter plus tard avec JSON)
+    // Chargement des bundles kits/*.sbk (un bundle remplace le kit intégré du même nom)
+    private void loadKitsFromFiles() {
+        Path kitsDir = Paths.get(KITS_DIRECTORY);
+        if (!Files.isDirectory(kitsDir)) {
+            System.out.println("Kits directory not found, no kit bundle loaded");
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(kitsDir, "*" + KitBundle.EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    registerBundle(KitBundle.open(file));
+                } catch (IOException e) {
+                    System.err.println("Error loading kit bundle " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading kits: " + e.getMessage());
+        }
+    }
+
+    private synchronized void registerBundle(KitBundle bundle) {
+        SoundKit kit = bundle.getKit();
+        kits.put(kit.getName(), kit);
+        bundles.put(kit.getName(), bundle);
+        if (currentKit != null && currentKit.getName().equals(kit.getName())) {
+            currentKit = kit;
+        }
+    }
+
+    // Sauvegarde d'un kit en bundle : kits/<nom>.sbk, samples décodés au format du moteur
     public boolean saveKit(SoundKit kit) {
+        return saveKit(kit, null);
+    }
+
+    // Idem, et si le kit est chargé dans ce cache, ses samples passent tout de suite aux données
+    // mappées du bundle (plus de copie hors heap ni sur le heap)
+    public boolean saveKit(SoundKit kit, SampleCache cache) {
         try {
             // Créer le dossier kits s'il n'existe pas
             Path kitsDir = Paths.get(KITS_DIRECTORY);
             if (!Files.exists(kitsDir)) {
                 Files.createDirectories(kitsDir);
             }
-            
-            // Future: Implémenter la sauvegarde JSON
-            System.out.println("Kit saved: " + kit.getName());
+
+            Path file = kitsDir.resolve(getBundleFileName(kit));
+            KitBundle.write(kit, file);
+            KitBundle bundle = KitBundle.open(file);
+            registerBundle(bundle);
+            if (cache != null && loadedKits.contains(kit.getName())) {
+                for (SoundPad pad : bundle.getKit().getPads()) {
+                    Sample mapped = bundle.getSample(pad.getFilePath());
+                    if (mapped != null) {
+                        cache.adopt(kit.getName(), mapped);
+                    }
+                }
+            }
+            System.out.println("Kit saved: " + kit.getName() + " → " + file);
             return true;
         } catch (Exception e) {
             System.err.println("Error saving kit: " + e.getMessage());
             return false;
         }
     }
+
+    private static String getBundleFileName(SoundKit kit) {
+        return kit.getName().toLowerCase().replaceAll("[^a-z0-9._-]", "_") + KitBundle.EXTENSION;
+    }
+
+    public KitBundle getBundle(String kitName) {
+        return bundles.get(kitName);
+    }
     
     // Validation des fichiers audio d'un kit
     public boolean validateKit(SoundKit kit) {
@@ -171,7 +540,7 @@ public class KitManager {
         
         for (SoundPad pad : kit.getPads()) {
             String filePath = pad.getFilePath();
-            if (!Files.exists(Paths.get(filePath))) {
+            if (!pad.isFileValid()) {
                 System.err.println("Missing audio file: " + filePath);
                 return false;
             }
@@ -181,7 +550,7 @@ public class KitManager {
     
     // Créer un nouveau kit vide
     public SoundKit createEmptyKit(String name, String description) {
-        if (kits.containsKey(name)) {
+        if (hasKit(name)) {
             System.err.println("Kit already exists: " + name);
             return null;
         }
@@ -192,21 +561,21 @@ public class KitManager {
     }
     
     // Méthodes utilitaires
-    public int getKitCount() {
+    public synchronized int getKitCount() {
         return kits.size();
     }
     
-    public boolean hasKit(String name) {
+    public synchronized boolean hasKit(String name) {
         return kits.containsKey(name);
     }
     
     // Pour le debugging
     public void printKitInfo() {
         System.out.println("=== KIT MANAGER INFO ===");
-        System.out.println("Total kits: " + kits.size());
+        System.out.println("Total kits: " + getKitCount());
         System.out.println("Current kit: " + (currentKit != null ? currentKit.getName() : "None"));
         
-        for (SoundKit kit : kits.values()) {
+        for (SoundKit kit : getAllKits()) {
             System.out.println("- " + kit.toString());
         }
     }
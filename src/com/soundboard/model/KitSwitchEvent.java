@@ -0,0 +1,24 @@
+package com.soundboard.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.soundboard.KitSwitch")
+@Label("Kit Switch")
+@Category({ "Soundboard", "Kits" })
+@StackTrace(false)
+class KitSwitchEvent extends jdk.jfr.Event {
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+
+    @Label("Pads")
+    int pads;
+
+    @Label("Bundled")
+    boolean bundled;
+}
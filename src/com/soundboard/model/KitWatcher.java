@@ -0,0 +1,132 @@
+package com.soundboard.model;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+// 👀 Surveille sounds/ et ses sous-dossiers (WatchService, thread "kit-watcher").
+// Les événements sont regroupés pendant DEBOUNCE_MILLIS (un fichier copié en plusieurs
+// écritures n'est rechargé qu'une fois), puis seuls les dossiers touchés sont relus.
+final class KitWatcher implements Runnable {
+    private static final long DEBOUNCE_MILLIS = 250;
+
+    private final Path root;
+    private final KitManager manager;
+    private final WatchService service;
+    private final Map<WatchKey, Path> folders = new HashMap<>();
+    private volatile boolean running = true;
+
+    KitWatcher(Path root, KitManager manager) throws IOException {
+        this.root = root;
+        this.manager = manager;
+        this.service = root.getFileSystem().newWatchService();
+        register(root);
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, KitDiscovery::isKitFolder)) {
+            for (Path dir : dirs) {
+                register(dir);
+            }
+        }
+    }
+
+    void start() {
+        Thread thread = new Thread(this, "kit-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        try {
+            service.close(); // débloque take()
+        } catch (IOException ignored) {}
+    }
+
+    private void register(Path folder) throws IOException {
+        folders.put(folder.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), folder);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            // Dossier → fichiers audio créés ou modifiés (à redécoder)
+            Map<Path, Set<Path>> changed = new LinkedHashMap<>();
+            Set<Path> removed = new LinkedHashSet<>();
+            try {
+                WatchKey key = service.take();
+                while (key != null) {
+                    collect(key, changed, removed);
+                    key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            for (Path folder : removed) {
+                changed.remove(folder);
+                manager.folderRemoved(folder);
+            }
+            for (Map.Entry<Path, Set<Path>> entry : changed.entrySet()) {
+                try {
+                    manager.folderChanged(entry.getKey(), entry.getValue());
+                } catch (Exception e) {
+                    // Le watcher doit survivre à un dossier illisible
+                    System.err.println("Error reloading " + entry.getKey() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void collect(WatchKey key, Map<Path, Set<Path>> changed, Set<Path> removed) {
+        Path folder = folders.get(key);
+        if (folder == null) {
+            key.cancel();
+            return;
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // Événements perdus : le dossier est relu en entier
+                changed.computeIfAbsent(folder, f -> new HashSet<>());
+                continue;
+            }
+            Path child = folder.resolve((Path) event.context());
+
+            if (folder.equals(root) && event.kind() == ENTRY_CREATE && KitDiscovery.isKitFolder(child)) {
+                try {
+                    register(child);
+                    removed.remove(child);
+                    changed.computeIfAbsent(child, f -> new HashSet<>());
+                } catch (IOException e) {
+                    System.err.println("Cannot watch " + child + ": " + e.getMessage());
+                }
+            } else if (folder.equals(root) && event.kind() == ENTRY_DELETE && folders.containsValue(child)) {
+                removed.add(child);
+            } else if (KitDiscovery.isAudioFile(child) || KitDiscovery.isManifest(child)) {
+                Set<Path> files = changed.computeIfAbsent(folder, f -> new HashSet<>());
+                if (event.kind() != ENTRY_DELETE && KitDiscovery.isAudioFile(child)) {
+                    files.add(child);
+                }
+            }
+        }
+        if (!key.reset()) {
+            // Dossier supprimé ou inaccessible
+            folders.remove(key);
+            if (!folder.equals(root)) {
+                removed.add(folder);
+            }
+        }
+    }
+}
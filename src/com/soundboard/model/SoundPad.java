@@ -1,5 +1,6 @@
 package com.soundboard.model;
 
+import com.soundboard.audio.SampleInfo;
 import java.awt.Color;
 import java.io.File;
 import java.nio.file.Files;
@@ -12,6 +13,7 @@ public class SoundPad {
     private float volume;           // 🆕 Volume individuel (0.0 à 1.0)
     private boolean enabled;        // 🆕 Pad activé/désactivé
     private String description;     // 🆕 Description optionnelle
+    private volatile SampleInfo sampleInfo; // métadonnées indexées (KitManager), null si inconnues
     
     // Couleur par défaut pour les pads
     public static final Color DEFAULT_COLOR = new Color(77, 77, 77);
@@ -45,6 +47,7 @@ public class SoundPad {
     public float getVolume() { return volume; }
     public boolean isEnabled() { return enabled; }
     public String getDescription() { return description; }
+    public SampleInfo getSampleInfo() { return sampleInfo; }
     
     // Setters
     public void setName(String name) { 
@@ -70,12 +73,21 @@ public class SoundPad {
     public void setDescription(String description) { 
         this.description = description != null ? description : ""; 
     }
+
+    public void setSampleInfo(SampleInfo sampleInfo) {
+        this.sampleInfo = sampleInfo;
+    }
     
     // 🆕 Validation du fichier audio
     public boolean isFileValid() {
         if (filePath == null || filePath.isEmpty()) {
             return false;
         }
+        // Indexé : le fichier existait et se lisait à la dernière vérification, pas d'accès disque
+        SampleInfo info = sampleInfo;
+        if (info != null && info.getFilePath().equals(filePath)) {
+            return true;
+        }
         
         File file = new File(filePath);
         return file.exists() && file.isFile() && isAudioFile(filePath);
@@ -96,6 +108,10 @@ public class SoundPad {
     
     // 🆕 Obtenir la taille du fichier (en bytes)
     public long getFileSize() {
+        SampleInfo info = sampleInfo;
+        if (info != null && info.getFilePath().equals(filePath)) {
+            return info.getFileSize();
+        }
         try {
             return Files.size(Paths.get(filePath));
         } catch (Exception e) {
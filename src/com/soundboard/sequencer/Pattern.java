@@ -1,5 +1,161 @@
 package com.soundboard.sequencer;
 
+import java.util.Arrays;
+
+// Pattern compact : un bitset par piste (un long pour 64 steps), nombre de pistes et longueur libres.
+// Un index par colonne (un bitset de pistes par step) permet de ne parcourir que les coups actifs.
+// Le séquenceur publie des copies qui ne sont plus jamais modifiées ensuite (voir SequencerEngine).
 public class Pattern {
-    
+    public static final int MAX_LENGTH = 4096;
+
+    private final int trackCount;
+    private int length;
+    private final int columnWords; // mots de 64 pistes par colonne
+    private long[][] tracks;       // [piste][mot de 64 steps]
+    private long[] columns;        // [step * columnWords + mot de 64 pistes], à plat pour des copies rapides
+
+    public Pattern(int trackCount, int length) {
+        this.trackCount = Math.max(1, trackCount);
+        this.length = clampLength(length);
+        this.columnWords = wordsFor(this.trackCount);
+        this.tracks = new long[this.trackCount][wordsFor(this.length)];
+        this.columns = new long[this.length * columnWords];
+    }
+
+    // Copie profonde
+    public Pattern(Pattern other) {
+        this.trackCount = other.trackCount;
+        this.length = other.length;
+        this.columnWords = other.columnWords;
+        this.tracks = new long[trackCount][];
+        for (int t = 0; t < trackCount; t++) {
+            this.tracks[t] = other.tracks[t].clone();
+        }
+        this.columns = other.columns.clone();
+    }
+
+    // Getters
+    public int getTrackCount() { return trackCount; }
+    public int getLength() { return length; }
+
+    // Les steps au-delà de la nouvelle longueur sont conservés si on rallonge ensuite
+    public void setLength(int length) {
+        this.length = clampLength(length);
+        ensureCapacity(this.length);
+    }
+
+    public boolean get(int track, int step) {
+        if (!isInside(track, step)) return false;
+        return (tracks[track][step >>> 6] & (1L << step)) != 0;
+    }
+
+    public void set(int track, int step, boolean active) {
+        if (!isInside(track, step)) return;
+        if (active) {
+            tracks[track][step >>> 6] |= 1L << step;
+            columns[step * columnWords + (track >>> 6)] |= 1L << track;
+        } else {
+            tracks[track][step >>> 6] &= ~(1L << step);
+            columns[step * columnWords + (track >>> 6)] &= ~(1L << track);
+        }
+    }
+
+    public void toggle(int track, int step) {
+        set(track, step, !get(track, step));
+    }
+
+    // Prochaine piste active sur ce step à partir de fromTrack, -1 s'il n'y en a plus.
+    // Usage : for (int t = p.nextActiveTrack(s, 0); t >= 0; t = p.nextActiveTrack(s, t + 1))
+    public int nextActiveTrack(int step, int fromTrack) {
+        if (step < 0 || step >= length || fromTrack >= trackCount) return -1;
+        int base = step * columnWords;
+        int word = Math.max(0, fromTrack) >>> 6;
+        if (word >= columnWords) return -1;
+
+        long bits = columns[base + word] & (-1L << Math.max(0, fromTrack));
+        while (true) {
+            if (bits != 0) {
+                int track = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return track < trackCount ? track : -1;
+            }
+            if (++word >= columnWords) return -1;
+            bits = columns[base + word];
+        }
+    }
+
+    public boolean isStepEmpty(int step) {
+        return nextActiveTrack(step, 0) < 0;
+    }
+
+    // Dernière piste avec au moins un step actif, -1 si le pattern est vide
+    public int lastActiveTrack() {
+        for (int t = trackCount - 1; t >= 0; t--) {
+            for (int w = 0; w < tracks[t].length; w++) {
+                if ((tracks[t][w] & wordMask(w)) != 0) return t;
+            }
+        }
+        return -1;
+    }
+
+    public int countActiveSteps() {
+        int count = 0;
+        for (long[] track : tracks) {
+            for (int w = 0; w < track.length; w++) {
+                count += Long.bitCount(track[w] & wordMask(w));
+            }
+        }
+        return count;
+    }
+
+    public void clear() {
+        for (long[] track : tracks) {
+            Arrays.fill(track, 0L);
+        }
+        Arrays.fill(columns, 0L);
+    }
+
+    public void clearTrack(int track) {
+        if (track < 0 || track >= trackCount) return;
+        Arrays.fill(tracks[track], 0L);
+        for (int i = track >>> 6; i < columns.length; i += columnWords) {
+            columns[i] &= ~(1L << track);
+        }
+    }
+
+    private void ensureCapacity(int steps) {
+        if (steps * columnWords > columns.length) {
+            int words = wordsFor(steps);
+            for (int t = 0; t < trackCount; t++) {
+                if (tracks[t].length < words) {
+                    tracks[t] = Arrays.copyOf(tracks[t], words);
+                }
+            }
+            columns = Arrays.copyOf(columns, steps * columnWords);
+        }
+    }
+
+    // Masque des steps d'un mot qui sont dans la longueur courante
+    private long wordMask(int word) {
+        int remaining = length - (word << 6);
+        if (remaining >= 64) return -1L;
+        return remaining <= 0 ? 0L : (1L << remaining) - 1;
+    }
+
+    private boolean isInside(int track, int step) {
+        return track >= 0 && track < trackCount && step >= 0 && step < length;
+    }
+
+    private static int clampLength(int length) {
+        return Math.max(1, Math.min(MAX_LENGTH, length));
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pattern{tracks=%d, length=%d, active=%d}",
+                           trackCount, length, countActiveSteps());
+    }
 }
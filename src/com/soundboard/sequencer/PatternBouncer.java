@@ -0,0 +1,122 @@
+package com.soundboard.sequencer;
+
+import com.soundboard.audio.AudioEngine;
+import com.soundboard.audio.AudioMixer;
+import com.soundboard.audio.SoundPlayer;
+import com.soundboard.audio.VoicePool;
+import com.soundboard.model.SoundKit;
+import com.soundboard.model.SoundPad;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+// Bounce d'un pattern vers un fichier WAV, sans carte son et aussi vite que le CPU le permet.
+// Le rendu passe par un AudioMixer identique à celui du live : la sortie est la même au bit près.
+public class PatternBouncer {
+    private final SoundPlayer player;
+
+    public PatternBouncer(SoundPlayer player) {
+        this.player = player;
+    }
+
+    public static class Result {
+        private final long frames;
+        private final long renderNanos;
+        private final float sampleRate;
+
+        Result(long frames, long renderNanos, float sampleRate) {
+            this.frames = frames;
+            this.renderNanos = renderNanos;
+            this.sampleRate = sampleRate;
+        }
+
+        public long getFrames() { return frames; }
+        public double getAudioSeconds() { return frames / (double) sampleRate; }
+        public double getRenderSeconds() { return renderNanos / 1e9; }
+
+        // Secondes d'audio rendues par seconde de calcul (x100 = 100 fois plus vite que le temps réel)
+        public double getRealtimeFactor() {
+            return renderNanos > 0 ? getAudioSeconds() / getRenderSeconds() : Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Bounce{frames=%d, audio=%.2fs, render=%.3fs, realtime=x%.1f}",
+                               frames, getAudioSeconds(), getRenderSeconds(), getRealtimeFactor());
+        }
+    }
+
+    // Rend 'loops' passages du pattern de source (kit, BPM, longueur).
+    // includeTail : laisse sonner les voix après la dernière mesure au lieu de couper net.
+    public Result bounce(SequencerEngine source, int loops, boolean includeTail, File output)
+            throws IOException, UnsupportedAudioFileException {
+        SoundKit kit = source.getCurrentKit();
+        if (kit == null) {
+            throw new IllegalStateException("No kit to bounce");
+        }
+
+        // Tous les samples doivent être en mémoire : le séquenceur ne saute aucun coup
+        for (SoundPad pad : kit.getPads()) {
+            player.getCache().get(pad.getFilePath());
+        }
+
+        AudioMixer live = player.getEngine().getMixer();
+        VoicePool livePool = live.getVoicePool();
+        AudioMixer mixer = new AudioMixer(live.getSampleRate(), live.getBlockFrames(),
+                                          livePool.getMaxPolyphony(), livePool.getStealPolicy());
+        mixer.getStreamer().setSynchronous(true); // samples longs lus sans jamais affamer le rendu
+        mixer.setMasterGain(live.getMasterGain());
+        mixer.setVectorized(live.isVectorized());
+
+        SequencerEngine sequencer = new SequencerEngine(player, mixer);
+        sequencer.copyStateFrom(source);
+
+        long steps = (long) Math.max(1, loops) * sequencer.getPatternLength();
+        long patternFrames = (long) Math.ceil(steps * sequencer.getFramesPerStep());
+        // Le dernier bloc déborde de la fin du pattern : le temps fort du tour suivant n'y est pas joué
+        sequencer.setStepLimit(steps);
+        byte[] block = new byte[mixer.getBlockSizeInBytes()];
+        ByteArrayOutputStream pcm = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE, patternFrames * 4));
+
+        long start = System.nanoTime();
+        long rendered = 0;
+        try {
+            sequencer.play();
+            while (rendered < patternFrames) {
+                mixer.render(block);
+                int frames = (int) Math.min(mixer.getBlockFrames(), patternFrames - rendered);
+                pcm.write(block, 0, frames * 4);
+                rendered += frames;
+            }
+            // Plus aucun step : le séquenceur offline est détaché, seules les voix en cours continuent
+            sequencer.destroy();
+
+            // Queue de réverbération naturelle des samples encore actifs
+            if (includeTail) {
+                while (mixer.getActiveVoiceCount() > 0) {
+                    mixer.render(block);
+                    pcm.write(block, 0, block.length);
+                    rendered += mixer.getBlockFrames();
+                }
+            }
+        } finally {
+            mixer.close(); // fichiers des samples streamés encore ouverts
+        }
+        long renderNanos = System.nanoTime() - start;
+
+        byte[] data = pcm.toByteArray();
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(data),
+                AudioEngine.FORMAT, data.length / AudioEngine.FORMAT.getFrameSize())) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, output);
+        }
+
+        Result result = new Result(rendered, renderNanos, mixer.getSampleRate());
+        System.out.println("Bounced " + kit.getName() + " to " + output + ": " + result);
+        return result;
+    }
+}
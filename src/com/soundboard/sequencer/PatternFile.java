@@ -0,0 +1,92 @@
+package com.soundboard.sequencer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Format texte d'un pattern : une ligne par piste, 'x' = coup, '.' ou '-' = silence.
+//   # commentaire
+//   bpm 130
+//   kit Metal
+//   x...x...x...x...
+//   ....x.......x...
+public class PatternFile {
+    private Pattern pattern;
+    private int bpm = 0;      // 0 = non précisé
+    private String kitName;   // null = non précisé
+
+    public PatternFile(Pattern pattern, int bpm, String kitName) {
+        this.pattern = pattern;
+        this.bpm = bpm;
+        this.kitName = kitName;
+    }
+
+    // Getters
+    public Pattern getPattern() { return pattern; }
+    public int getBpm() { return bpm; }
+    public String getKitName() { return kitName; }
+
+    public static PatternFile load(Path file) throws IOException {
+        List<String> rows = new ArrayList<>();
+        int bpm = 0;
+        String kitName = null;
+
+        for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String lower = line.toLowerCase();
+            if (lower.startsWith("bpm ")) {
+                try {
+                    bpm = Integer.parseInt(line.substring(4).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid bpm line: " + line);
+                }
+            } else if (lower.startsWith("kit ")) {
+                kitName = line.substring(4).trim();
+            } else {
+                rows.add(line.replace(" ", ""));
+            }
+        }
+
+        if (rows.isEmpty()) {
+            throw new IOException("No track in pattern file: " + file);
+        }
+        int length = 0;
+        for (String row : rows) {
+            length = Math.max(length, row.length());
+        }
+
+        Pattern pattern = new Pattern(Math.max(rows.size(), SequencerEngine.TRACK_COUNT), length);
+        for (int track = 0; track < rows.size(); track++) {
+            String row = rows.get(track);
+            for (int step = 0; step < row.length(); step++) {
+                char c = Character.toLowerCase(row.charAt(step));
+                if (c == 'x') {
+                    pattern.set(track, step, true);
+                } else if (c != '.' && c != '-') {
+                    throw new IOException("Invalid step '" + c + "' on track " + (track + 1) + ": " + row);
+                }
+            }
+        }
+        return new PatternFile(pattern, bpm, kitName);
+    }
+
+    public void save(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (bpm > 0) lines.add("bpm " + bpm);
+        if (kitName != null) lines.add("kit " + kitName);
+
+        for (int track = 0; track < pattern.getTrackCount(); track++) {
+            StringBuilder row = new StringBuilder(pattern.getLength());
+            for (int step = 0; step < pattern.getLength(); step++) {
+                row.append(pattern.get(track, step) ? 'x' : '.');
+            }
+            lines.add(row.toString());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+}
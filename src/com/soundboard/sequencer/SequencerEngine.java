@@ -1,173 +1,493 @@
 package com.soundboard.sequencer;
 
+import com.soundboard.model.KitManager;
 import com.soundboard.model.SoundKit;
 import com.soundboard.model.SoundPad;
+import com.soundboard.audio.AudioMixer;
+import com.soundboard.audio.Sample;
+import com.soundboard.audio.SampleCache;
 import com.soundboard.audio.SoundPlayer;
-import javax.swing.Timer;
-import java.util.List;
+import jdk.jfr.EventType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
-public class SequencerEngine {
+// Séquenceur cadencé par l'horloge audio : les steps sont planifiés en frames
+// depuis le thread de rendu, au bloc qui les contient, à l'échantillon près.
+// Threads : l'UI modifie le pattern par copie puis publie la copie de façon atomique ;
+// le thread de rendu lit un snapshot par step, jamais modifié, sans verrou ni attente.
+public class SequencerEngine implements AudioMixer.BlockListener {
     private SoundPlayer player;
-    private SoundKit currentKit;
-    
+    private AudioMixer mixer;
+    // Vérifié avant d'instancier l'événement : rien n'est alloué sans enregistrement JFR actif
+    private static final EventType STEP_FIRED = EventType.getEventType(StepFiredEvent.class);
+
     // Pattern state
-    private boolean[][] patterns; // [padIndex][stepIndex]
-    private int currentStep = 0;
-    private int patternLength = 16;
-    private int bpm = 120;
+    public static final int TRACK_COUNT = 9; // pattern par défaut ; le kit peut avoir plus de pads
+    public static final int STEPS_PER_BAR = 16; // 4 temps de 4 doubles-croches
+
+    private final AtomicReference<Pattern> pattern; // snapshot publié, immuable une fois publié
+    private volatile int currentStep = 0;          // écrit uniquement par le thread de rendu
+    private volatile int bpm = 120;
     
     // Playback control
-    private Timer sequencerTimer;
-    private boolean isPlaying = false;
+    private volatile boolean isPlaying = false;
+    private volatile boolean restartRequested = false;
+    private volatile boolean rewindRequested = false;
     private boolean isRecording = false;
-    
+
+    // Horloge du séquenceur (thread de rendu uniquement)
+    private long anchorFrame = 0;        // frame du premier step depuis le dernier changement de tempo
+    private long stepsSinceAnchor = 0;
+    private double anchorFramesPerStep;  // tempo en vigueur depuis l'ancre
+    private long anchorOutputNanos;      // sortie estimée du step d'ancre (retard des steps suivants)
+    private long stepsPlayed = 0;        // depuis play()
+    private long stepLimit = Long.MAX_VALUE; // rendu offline : aucun step planifié au-delà
+
+    // 🎵 Kit publié avec ses samples, résolus hors du thread de rendu (cache, décodage) :
+    // au rendu, une lecture de case par coup, sans verrou ni allocation. Une case par pad du kit.
+    private static final class KitSamples {
+        final SoundKit kit;
+        final AtomicReferenceArray<Sample> samples; // null : pas encore chargé
+        // Fichier dont le chargement a échoué : plus d'essai avant sampleChanged() ou refreshSamples()
+        final AtomicReferenceArray<String> failed;
+        // Samples manquants signalés par le thread de rendu : un bit par piste (préalloué)
+        final AtomicLongArray missing;
+
+        KitSamples(SoundKit kit) {
+            this.kit = kit;
+            this.samples = new AtomicReferenceArray<>(kit.getPadCount());
+            this.failed = new AtomicReferenceArray<>(kit.getPadCount());
+            this.missing = new AtomicLongArray((kit.getPadCount() + 63) / 64);
+        }
+
+        int trackCount() {
+            return samples.length();
+        }
+    }
+
+    private volatile KitSamples currentKit;
+    // Kit préchargé en attente de la prochaine mesure (appliqué par le thread de rendu)
+    private volatile KitSamples pendingKit;
+    private final AtomicLong kitRequest = new AtomicLong();
+
+    // Réveillé par le thread de rendu quand un sample manque (KitSamples.missing) :
+    // charge les samples signalés et remplit les cases
+    private final Thread resolver;
+
     public SequencerEngine(SoundPlayer player) {
+        this(player, player.getEngine().getMixer());
+    }
+
+    // Séquenceur branché sur un autre mixer que celui de la sortie audio (rendu offline)
+    public SequencerEngine(SoundPlayer player, AudioMixer mixer) {
         this.player = player;
-        this.patterns = new boolean[9][16]; // 9 pads max, 16 steps max
-        initTimer();
+        this.mixer = mixer;
+        this.pattern = new AtomicReference<>(new Pattern(TRACK_COUNT, 16));
+        this.anchorFramesPerStep = calculateFramesPerStep();
+        this.resolver = new Thread(this::resolveMissingSamples, "sequencer-samples");
+        resolver.setDaemon(true);
+        resolver.start();
+        mixer.setBlockListener(this);
     }
     
-    private void initTimer() {
-        sequencerTimer = new Timer(calculateStepInterval(), e -> {
-            if (isPlaying) {
-                playCurrentStep();
-                advanceStep();
+    // ⏱️ Appelé au début de chaque bloc audio : planifie les steps qui tombent dedans
+    @Override
+    public void onBlockStart(long blockStartFrame, int blockFrames) {
+        if (rewindRequested) {
+            rewindRequested = false;
+            currentStep = 0;
+        }
+        if (!isPlaying) return;
+
+        if (restartRequested) {
+            restartRequested = false;
+            anchorFrame = blockStartFrame;
+            stepsSinceAnchor = 0;
+            anchorFramesPerStep = calculateFramesPerStep();
+            stepsPlayed = 0;
+            mixer.getMetrics().resetStepClock();
+        }
+
+        double framesPerStep = calculateFramesPerStep();
+        if (framesPerStep != anchorFramesPerStep) {
+            // Changement de BPM : on repart du prochain step prévu pour ne pas sauter de temps
+            anchorFrame = nextStepFrame();
+            stepsSinceAnchor = 0;
+            anchorFramesPerStep = framesPerStep;
+        }
+
+        long blockEnd = blockStartFrame + blockFrames;
+        long stepFrame;
+        while (stepsPlayed < stepLimit && (stepFrame = nextStepFrame()) < blockEnd) {
+            int offset = (int) Math.max(0, stepFrame - blockStartFrame);
+            long evaluationNanos = System.nanoTime();
+            long outputNanos = mixer.estimateOutputNanos(offset);
+            double nominalStepNanos = framesPerStep * 1e9 / mixer.getSampleRate();
+            mixer.getMetrics().recordStep(evaluationNanos, outputNanos, nominalStepNanos);
+            if (stepsSinceAnchor == 0) {
+                anchorOutputNanos = outputNanos;
             }
-        });
+
+            Pattern snapshot = pattern.get();
+            if (currentStep >= snapshot.getLength()) {
+                currentStep = 0; // pattern raccourci depuis le dernier step
+            }
+            if (pendingKit != null && currentStep % STEPS_PER_BAR == 0) {
+                applyPendingKit();
+            }
+            int hits = playCurrentStep(snapshot, offset);
+
+            if (STEP_FIRED.isEnabled()) {
+                StepFiredEvent event = new StepFiredEvent();
+                if (event.shouldCommit()) {
+                    event.step = currentStep;
+                    event.hits = hits;
+                    event.frameOffset = offset;
+                    event.lateness = outputNanos - (anchorOutputNanos + (long) (stepsSinceAnchor * nominalStepNanos));
+                    event.latency = outputNanos - evaluationNanos;
+                    event.commit();
+                }
+            }
+            advanceStep(snapshot);
+            stepsSinceAnchor++;
+            stepsPlayed++;
+        }
+    }
+
+    private long nextStepFrame() {
+        // Calcul depuis l'ancre : pas d'erreur cumulée d'un step à l'autre
+        return anchorFrame + (long) Math.floor(stepsSinceAnchor * anchorFramesPerStep);
+    }
+
+    // 🎵 COEUR DU SÉQUENCEUR : La boucle ! Retourne le nombre de pads joués.
+    private int playCurrentStep(Pattern snapshot, int frameOffset) {
+        KitSamples kit = currentKit;
+        if (kit == null) return 0;
+
+        int hits = 0;
+        // Jouer uniquement les pads actifs sur ce step (bits à 1 de la colonne)
+        for (int padIndex = snapshot.nextActiveTrack(currentStep, 0); padIndex >= 0 && padIndex < kit.trackCount();
+                padIndex = snapshot.nextActiveTrack(currentStep, padIndex + 1)) {
+            SoundPad pad = kit.kit.getPad(padIndex);
+            if (pad != null) {
+                trigger(kit, padIndex, pad, frameOffset);
+                hits++;
+            }
+        }
+        return hits;
     }
     
-    // 🎵 COEUR DU SÉQUENCEUR : La boucle !
-    private void playCurrentStep() {
-        if (currentKit == null) return;
-        
-        List<SoundPad> pads = currentKit.getPads();
-        
-        // Jouer tous les pads actifs sur ce step
-        for (int padIndex = 0; padIndex < Math.min(pads.size(), 9); padIndex++) {
-            if (patterns[padIndex][currentStep]) {
-                SoundPad pad = pads.get(padIndex);
-                if (pad != null) {
-                    player.play(pad.getFilePath());
-                    System.out.println("Step " + currentStep + ": Playing " + pad.getName());
+    // Thread de rendu : ni accès disque, ni cache, ni allocation. Un sample pas encore chargé,
+    // retiré (fichier rechargé, kit déchargé) ou d'un pad remplacé est résolu en arrière-plan
+    // et ce coup-ci est sauté. Un fichier introuvable ou illisible n'est pas redemandé à chaque coup.
+    private void trigger(KitSamples kit, int track, SoundPad pad, int frameOffset) {
+        Sample sample = kit.samples.get(track);
+        if (sample == null || !sample.getFilePath().equals(pad.getFilePath())) {
+            if (!pad.getFilePath().equals(kit.failed.get(track))) {
+                requestSample(kit, track);
+            }
+        } else if (!mixer.trigger(sample, pad.getVolume(), frameOffset) && sample.isRetired()) {
+            requestSample(kit, track); // sample retiré : coup perdu, la version courante du cache est reprise
+        }
+    }
+
+    private void requestSample(KitSamples kit, int track) {
+        int word = track >>> 6;
+        long bit = 1L << track; // décalage modulo 64
+        long missing;
+        do {
+            missing = kit.missing.get(word);
+            if ((missing & bit) != 0) {
+                return; // déjà signalé
+            }
+        } while (!kit.missing.compareAndSet(word, missing, missing | bit));
+        LockSupport.unpark(resolver);
+    }
+
+    // Thread "sequencer-samples" : attend les signalements du thread de rendu.
+    // Un signalement après le parcours laisse un permis : park() revient aussitôt
+    private void resolveMissingSamples() {
+        while (!Thread.currentThread().isInterrupted()) {
+            KitSamples kit = currentKit;
+            boolean resolved = false;
+            if (kit != null) {
+                for (int word = 0; word < kit.missing.length(); word++) {
+                    long missing = kit.missing.getAndSet(word, 0);
+                    for (; missing != 0; missing &= missing - 1) {
+                        resolve(kit, word * 64 + Long.numberOfTrailingZeros(missing));
+                        resolved = true;
+                    }
                 }
             }
+            if (!resolved) {
+                LockSupport.park(this);
+            }
         }
     }
-    
-    private void advanceStep() {
-        currentStep = (currentStep + 1) % patternLength;
+
+    // Hors thread de rendu : sample du pad depuis le cache, décodé en arrière-plan si besoin
+    private void resolve(KitSamples kit, int track) {
+        SoundPad pad = kit.kit.getPad(track);
+        if (pad == null) return;
+        String filePath = pad.getFilePath();
+        player.load(filePath).thenAccept(sample -> {
+            if (sample != null) {
+                kit.samples.set(track, sample);
+                kit.failed.set(track, null);
+            } else {
+                kit.failed.set(track, filePath); // erreur déjà affichée par SoundPlayer.load
+            }
+        });
+    }
+
+    // Samples déjà en cache posés tout de suite, les autres dès leur chargement
+    private KitSamples resolve(SoundKit kit) {
+        KitSamples resolved = new KitSamples(kit);
+        for (int track = 0; track < resolved.trackCount(); track++) {
+            resolve(resolved, track);
+        }
+        return resolved;
+    }
+
+    // Samples du kit rechargés dans le cache (copies hors heap prêtes, fichier modifié) :
+    // le séquenceur reprend ceux du cache
+    public void refreshSamples(SoundKit kit) {
+        for (KitSamples resolved : new KitSamples[] { currentKit, pendingKit }) {
+            if (resolved != null && resolved.kit == kit) {
+                for (int track = 0; track < resolved.trackCount(); track++) {
+                    resolve(resolved, track);
+                }
+            }
+        }
+    }
+
+    // Fichier créé ou modifié sur le disque (KitWatcher) : un pad en échec sur ce fichier
+    // est de nouveau résolu à son prochain coup
+    public void sampleChanged(String filePath) {
+        for (KitSamples resolved : new KitSamples[] { currentKit, pendingKit }) {
+            if (resolved == null) continue;
+            for (int track = 0; track < resolved.trackCount(); track++) {
+                if (filePath.equals(resolved.failed.get(track))) {
+                    resolved.failed.set(track, null);
+                }
+            }
+        }
+    }
+
+    private void advanceStep(Pattern snapshot) {
+        int playedStep = currentStep;
+        currentStep = (currentStep + 1) % snapshot.getLength();
         
         // Notify listeners (pour UI)
-        fireStepChanged(currentStep);
+        fireStepChanged(playedStep);
     }
     
+    // Bounce : joue 'steps' steps après play() puis n'en planifie plus, même au milieu d'un bloc.
+    // À fixer avant play()
+    void setStepLimit(long steps) {
+        this.stepLimit = steps;
+    }
+
     // ⏱️ BPM Control
     public void setBpm(int bpm) {
         this.bpm = Math.max(1, Math.min(999, bpm));
-        sequencerTimer.setDelay(calculateStepInterval());
     }
     
-    private int calculateStepInterval() {
-        // 4 steps par beat (16th notes)
-        return (60 * 1000) / (bpm * 4);
+    private double calculateFramesPerStep() {
+        // 4 steps par beat (16th notes), en frames exactes (130 BPM → 5088.46 frames)
+        return mixer.getSampleRate() * 60.0 / (bpm * 4);
+    }
+
+    public double getFramesPerStep() {
+        return calculateFramesPerStep();
     }
     
     // 🎛️ Pattern Control
-    public void setPatternLength(int length) {
-        this.patternLength = Math.max(1, Math.min(16, length));
-        if (currentStep >= patternLength) {
-            currentStep = 0;
+    // Copie, modification puis publication atomique (réessaie si un autre thread a publié entre-temps)
+    private void editPattern(Consumer<Pattern> edit) {
+        while (true) {
+            Pattern current = pattern.get();
+            Pattern next = new Pattern(current);
+            edit.accept(next);
+            if (pattern.compareAndSet(current, next)) {
+                return;
+            }
         }
     }
+
+    public void setPatternLength(int length) {
+        // Le thread de rendu revient au step 0 s'il se retrouve au-delà de la nouvelle longueur
+        editPattern(p -> p.setLength(length));
+    }
     
     public void setStep(int padIndex, int stepIndex, boolean active) {
-        if (padIndex >= 0 && padIndex < 9 && stepIndex >= 0 && stepIndex < 16) {
-            patterns[padIndex][stepIndex] = active;
-        }
+        editPattern(p -> p.set(padIndex, stepIndex, active));
     }
     
     public boolean getStep(int padIndex, int stepIndex) {
-        if (padIndex >= 0 && padIndex < 9 && stepIndex >= 0 && stepIndex < 16) {
-            return patterns[padIndex][stepIndex];
-        }
-        return false;
+        return pattern.get().get(padIndex, stepIndex);
     }
     
     public void toggleStep(int padIndex, int stepIndex) {
-        setStep(padIndex, stepIndex, !getStep(padIndex, stepIndex));
+        editPattern(p -> p.toggle(padIndex, stepIndex));
     }
     
     // ▶️ Transport Control
     public void play() {
         if (!isPlaying) {
+            restartRequested = true;
             isPlaying = true;
-            sequencerTimer.start();
-            System.out.println("Sequencer started - BPM: " + bpm + ", Length: " + patternLength);
+            System.out.println("Sequencer started - BPM: " + bpm + ", Length: " + getPatternLength());
         }
     }
     
     public void stop() {
         isPlaying = false;
-        sequencerTimer.stop();
-        currentStep = 0;
+        rewindRequested = true; // appliqué par le thread de rendu
+        applyPendingKit(); // plus de mesure à attendre
         System.out.println("Sequencer stopped");
     }
     
     public void pause() {
         isPlaying = false;
-        sequencerTimer.stop();
+        applyPendingKit();
         System.out.println("Sequencer paused at step " + currentStep);
     }
     
     // 🔄 Pattern Management
     public void clearPattern() {
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 16; j++) {
-                patterns[i][j] = false;
-            }
-        }
+        editPattern(Pattern::clear);
         System.out.println("Pattern cleared");
     }
     
+    public void setPattern(Pattern newPattern) {
+        pattern.set(new Pattern(newPattern));
+    }
+
     public void clearPadPattern(int padIndex) {
-        if (padIndex >= 0 && padIndex < 9) {
-            for (int j = 0; j < 16; j++) {
-                patterns[padIndex][j] = false;
-            }
-        }
+        editPattern(p -> p.clearTrack(padIndex));
     }
     
+    // Copie pattern, tempo, longueur et kit d'un autre séquenceur (ex: pour un bounce)
+    void copyStateFrom(SequencerEngine other) {
+        this.pattern.set(other.pattern.get()); // snapshot immuable : partage sans copie
+        this.bpm = other.bpm;
+        // Résolu à nouveau depuis le cache : les samples y sont déjà, aucun coup n'est sauté
+        KitSamples kit = other.currentKit;
+        this.currentKit = kit != null ? resolve(kit.kit) : null;
+    }
+
     // 🎵 Kit Integration  
     public void setCurrentKit(SoundKit kit) {
-        this.currentKit = kit;
+        kitRequest.incrementAndGet(); // annule un changement de kit en attente
+        this.pendingKit = null;
+        // Décoder les samples du kit avant qu'un step ne les demande
+        this.currentKit = kit != null ? resolve(kit) : null;
     }
     
+    // 🔀 Changement de kit sans trou : si les samples sont déjà en mémoire (ou à l'arrêt),
+    // le kit change tout de suite ; sinon il est préchargé en arrière-plan puis appliqué
+    // au début de la mesure suivante. Les voix en cours finissent sur les samples de l'ancien kit.
+    // Le future se termine quand le kit est chargé (appliqué ou en attente de la mesure).
+    public CompletableFuture<SoundKit> switchKit(SoundKit kit, KitManager kitManager) {
+        // Par identité : un kit rechargé depuis le disque garde son nom mais change de pads
+        if (kit == null || kit == getCurrentKit() && pendingKit == null) {
+            return CompletableFuture.completedFuture(kit);
+        }
+        if (!isPlaying || isResident(kit)) {
+            setCurrentKit(kit);
+            notifyKitSwitched(kit);
+            return CompletableFuture.completedFuture(kit);
+        }
+
+        long request = kitRequest.incrementAndGet();
+        return kitManager.preloadKit(kit, player.getCache(), null).thenApply(loaded -> {
+            // Un autre changement a été demandé pendant le chargement : celui-ci est abandonné
+            if (kitRequest.get() == request) {
+                if (isPlaying) {
+                    pendingKit = resolve(loaded);
+                } else {
+                    currentKit = resolve(loaded);
+                    notifyKitSwitched(loaded);
+                }
+            }
+            return loaded;
+        });
+    }
+
+    private boolean isResident(SoundKit kit) {
+        SampleCache cache = player.getCache();
+        for (SoundPad pad : kit.getPads()) {
+            if (!cache.contains(pad.getFilePath())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Thread de rendu au début d'une mesure, ou transport à l'arrêt
+    private void applyPendingKit() {
+        KitSamples kit = pendingKit;
+        if (kit == null) return;
+        pendingKit = null;
+        currentKit = kit;
+        notifyKitSwitched(kit.kit);
+    }
+
+    public SoundKit getPendingKit() {
+        KitSamples kit = pendingKit;
+        return kit != null ? kit.kit : null;
+    }
+
     // Getters
+    public SoundKit getCurrentKit() {
+        KitSamples kit = currentKit;
+        return kit != null ? kit.kit : null;
+    }
+    public Pattern getPattern() { return new Pattern(pattern.get()); }
     public int getCurrentStep() { return currentStep; }
-    public int getPatternLength() { return patternLength; }
+    public int getPatternLength() { return pattern.get().getLength(); }
+    public int getTrackCount() { return pattern.get().getTrackCount(); }
     public int getBpm() { return bpm; }
     public boolean isPlaying() { return isPlaying; }
     
     // Event system (pour l'UI)
     public interface StepListener {
         void onStepChanged(int step);
+
+        // Kit effectivement utilisé par le séquenceur (peut venir du thread de rendu)
+        default void onKitSwitched(SoundKit kit) {}
     }
     
-    private StepListener stepListener;
+    private volatile StepListener stepListener;
     
     public void setStepListener(StepListener listener) {
         this.stepListener = listener;
     }
     
     private void fireStepChanged(int step) {
-        if (stepListener != null) {
-            stepListener.onStepChanged(step);
+        StepListener listener = stepListener;
+        if (listener != null) {
+            listener.onStepChanged(step);
         }
     }
     
     // Cleanup
     public void destroy() {
         stop();
-        sequencerTimer = null;
+        mixer.setBlockListener(null);
+        resolver.interrupt();
+    }
+
+    private void notifyKitSwitched(SoundKit kit) {
+        StepListener listener = stepListener;
+        if (listener != null) {
+            listener.onKitSwitched(kit);
+        }
     }
-}
\ No newline at end of file
+}
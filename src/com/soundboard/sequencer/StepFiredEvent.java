@@ -0,0 +1,33 @@
+package com.soundboard.sequencer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.soundboard.StepFired")
+@Label("Step Fired")
+@Category({ "Soundboard", "Sequencer" })
+@Description("Sequencer step evaluated in the render thread")
+@StackTrace(false)
+class StepFiredEvent extends jdk.jfr.Event {
+    @Label("Step")
+    int step;
+
+    @Label("Hits")
+    int hits;
+
+    @Label("Frame Offset")
+    int frameOffset;
+
+    @Label("Lateness")
+    @Description("Estimated output time minus the ideal time on the tempo grid")
+    @Timespan(Timespan.NANOSECONDS)
+    long lateness;
+
+    @Label("Evaluation To Output")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
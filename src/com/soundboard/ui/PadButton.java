@@ -0,0 +1,45 @@
+package com.soundboard.ui;
+
+import com.soundboard.audio.WaveformCache;
+import com.soundboard.audio.WaveformPeaks;
+import javax.swing.*;
+import java.awt.*;
+
+// Pad de la grille : bouton classique avec la forme d'onde du sample en bas.
+// Tant que la forme d'onde n'est pas prête, le bouton est dessiné sans (aucune attente sur l'EDT).
+class PadButton extends JButton {
+    private static final long serialVersionUID = 1L;
+    private static final Color WAVEFORM = new Color(255, 255, 255, 90);
+    private static final int MARGIN = 6;
+
+    private final WaveformCache waveforms;
+    private final WaveformPainter painter = new WaveformPainter();
+    private String filePath;
+
+    PadButton(WaveformCache waveforms) {
+        this.waveforms = waveforms;
+    }
+
+    // null : pad vide
+    void setFilePath(String filePath) {
+        this.filePath = filePath;
+        repaint();
+    }
+
+    String getFilePath() {
+        return filePath;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        WaveformPeaks peaks = waveforms.get(filePath);
+        if (peaks == null) return;
+
+        // Tiers inférieur du bouton, sous le nom du pad
+        int height = getHeight() / 3;
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setColor(WAVEFORM);
+        painter.paint(g2, peaks, MARGIN, getHeight() - height - MARGIN, getWidth() - 2 * MARGIN, height);
+    }
+}
@@ -1,5 +1,187 @@
 package com.soundboard.ui;
 
-public class PatternGrid {
-    
+import com.soundboard.audio.WaveformCache;
+import com.soundboard.audio.WaveformPeaks;
+import com.soundboard.model.SoundKit;
+import com.soundboard.model.SoundPad;
+import com.soundboard.sequencer.SequencerEngine;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+// Grille du séquenceur dessinée dans un seul composant (pas un JButton par cellule).
+// Seules les zones modifiées sont redessinées : anciennes/nouvelles colonnes de la tête
+// de lecture et cellules basculées. Le dessin se limite au clip, quelle que soit la longueur.
+// Chaque nom de piste est dessiné sur la forme d'onde de son sample (pyramide de crêtes).
+public class PatternGrid extends JComponent {
+    private static final long serialVersionUID = 1L;
+    private static final int CELL_SIZE = 25;
+    private static final int CELL_GAP = 3;
+    private static final int PITCH = CELL_SIZE + CELL_GAP;
+    private static final int LABEL_WIDTH = 70;
+    private static final int HEADER_HEIGHT = 20;
+
+    private static final Color CELL_OFF = DarkTheme.BUTTON_BG.darker();
+    private static final Color CELL_ON = Color.ORANGE;
+    private static final Color CELL_BORDER = Color.BLACK;
+    private static final Color PLAYHEAD = Color.RED;
+    private static final Stroke PLAYHEAD_STROKE = new BasicStroke(2f);
+    private static final Color WAVEFORM = new Color(255, 165, 0, 70);
+
+    private final SequencerEngine sequencer;
+    private final WaveformCache waveforms;
+    private final WaveformPainter waveformPainter = new WaveformPainter();
+    private int playhead = -1;
+
+    public PatternGrid(SequencerEngine sequencer, WaveformCache waveforms) {
+        this.sequencer = sequencer;
+        this.waveforms = waveforms;
+        setOpaque(true);
+        setBackground(DarkTheme.BACKGROUND);
+        setForeground(DarkTheme.FOREGROUND);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int step = stepAt(e.getX());
+                int track = trackAt(e.getY());
+                if (step >= 0 && track >= 0) {
+                    sequencer.toggleStep(track, step);
+                    repaint(cellBounds(track, step));
+                }
+            }
+        });
+    }
+
+    // ▶️ Tête de lecture : on ne redessine que l'ancienne et la nouvelle colonne
+    public void setPlayhead(int step) {
+        if (step == playhead) return;
+        int previous = playhead;
+        playhead = step;
+        if (previous >= 0) {
+            repaint(columnBounds(previous));
+        }
+        if (step >= 0) {
+            repaint(columnBounds(step));
+        }
+    }
+
+    // Forme d'onde prête : seule la colonne des noms de pistes est redessinée
+    public void waveformReady() {
+        repaint(0, HEADER_HEIGHT, LABEL_WIDTH, trackCount() * PITCH);
+    }
+
+    // Longueur ou nombre de pistes modifiés : nouvelle taille puis redessin complet
+    public void patternChanged() {
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(LABEL_WIDTH + sequencer.getPatternLength() * PITCH,
+                             HEADER_HEIGHT + trackCount() * PITCH);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+
+        g2.setColor(getBackground());
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int length = sequencer.getPatternLength();
+        int tracks = trackCount();
+
+        // Seules les cellules qui intersectent le clip sont dessinées
+        int firstStep = Math.max(0, (clip.x - LABEL_WIDTH) / PITCH);
+        int lastStep = Math.min(length - 1, (clip.x + clip.width - LABEL_WIDTH) / PITCH);
+        int firstTrack = Math.max(0, (clip.y - HEADER_HEIGHT) / PITCH);
+        int lastTrack = Math.min(tracks - 1, (clip.y + clip.height - HEADER_HEIGHT) / PITCH);
+
+        g2.setFont(getFont());
+        FontMetrics metrics = g2.getFontMetrics();
+        g2.setColor(getForeground());
+
+        // En-têtes des steps
+        if (clip.y < HEADER_HEIGHT) {
+            for (int step = firstStep; step <= lastStep; step++) {
+                String text = String.valueOf(step + 1);
+                int x = LABEL_WIDTH + step * PITCH + (CELL_SIZE - metrics.stringWidth(text)) / 2;
+                g2.drawString(text, x, HEADER_HEIGHT - 5);
+            }
+        }
+
+        // Noms des pistes, sur la forme d'onde du sample
+        if (clip.x < LABEL_WIDTH) {
+            SoundKit kit = sequencer.getCurrentKit();
+            for (int track = firstTrack; track <= lastTrack; track++) {
+                SoundPad pad = kit != null ? kit.getPad(track) : null;
+                int top = HEADER_HEIGHT + track * PITCH;
+                WaveformPeaks peaks = pad != null ? waveforms.get(pad.getFilePath()) : null;
+                if (peaks != null) {
+                    g2.setColor(WAVEFORM);
+                    waveformPainter.paint(g2, peaks, 2, top, LABEL_WIDTH - CELL_GAP - 4, CELL_SIZE);
+                }
+                String text = pad != null ? pad.getName() : "Pad " + (track + 1);
+                g2.setColor(getForeground());
+                g2.drawString(text, 4, top + (CELL_SIZE + metrics.getAscent()) / 2 - 2);
+            }
+        }
+
+        // Cellules
+        for (int track = firstTrack; track <= lastTrack; track++) {
+            for (int step = firstStep; step <= lastStep; step++) {
+                int x = LABEL_WIDTH + step * PITCH;
+                int y = HEADER_HEIGHT + track * PITCH;
+                g2.setColor(sequencer.getStep(track, step) ? CELL_ON : CELL_OFF);
+                g2.fillRect(x, y, CELL_SIZE, CELL_SIZE);
+                g2.setColor(CELL_BORDER);
+                g2.drawRect(x, y, CELL_SIZE - 1, CELL_SIZE - 1);
+            }
+        }
+
+        // Tête de lecture
+        if (playhead >= firstStep && playhead <= lastStep) {
+            Stroke previous = g2.getStroke();
+            g2.setStroke(PLAYHEAD_STROKE);
+            g2.setColor(PLAYHEAD);
+            int x = LABEL_WIDTH + playhead * PITCH;
+            for (int track = firstTrack; track <= lastTrack; track++) {
+                g2.drawRect(x + 1, HEADER_HEIGHT + track * PITCH + 1, CELL_SIZE - 2, CELL_SIZE - 2);
+            }
+            g2.setStroke(previous);
+        }
+    }
+
+    private int trackCount() {
+        return sequencer.getTrackCount();
+    }
+
+    private int stepAt(int x) {
+        int offset = x - LABEL_WIDTH;
+        if (offset < 0 || offset % PITCH >= CELL_SIZE) return -1;
+        int step = offset / PITCH;
+        return step < sequencer.getPatternLength() ? step : -1;
+    }
+
+    private int trackAt(int y) {
+        int offset = y - HEADER_HEIGHT;
+        if (offset < 0 || offset % PITCH >= CELL_SIZE) return -1;
+        int track = offset / PITCH;
+        return track < trackCount() ? track : -1;
+    }
+
+    private Rectangle cellBounds(int track, int step) {
+        return new Rectangle(LABEL_WIDTH + step * PITCH, HEADER_HEIGHT + track * PITCH, CELL_SIZE, CELL_SIZE);
+    }
+
+    private Rectangle columnBounds(int step) {
+        return new Rectangle(LABEL_WIDTH + step * PITCH, HEADER_HEIGHT, CELL_SIZE, trackCount() * PITCH);
+    }
 }
@@ -6,12 +6,18 @@ import java.awt.event.KeyEvent;
 import com.soundboard.model.SoundPad;
 import com.soundboard.model.SoundKit;
 import com.soundboard.model.KitManager;
+import com.soundboard.audio.MetricsExporter;
 import com.soundboard.audio.SoundPlayer;
+import com.soundboard.audio.WaveformCache;
+import com.soundboard.sequencer.Pattern;
+import com.soundboard.sequencer.PatternBouncer;
 import com.soundboard.sequencer.SequencerEngine;
 import javax.swing.border.Border;
+import java.util.Arrays;
 import java.util.List;
 
-public class SoundBoardUI implements SequencerEngine.StepListener {
+public class SoundBoardUI implements SequencerEngine.StepListener, KitManager.KitLoadListener,
+                                     KitManager.KitChangeListener, WaveformCache.WaveformListener {
     private JFrame frame;
     private SoundPlayer player = new SoundPlayer();
     private KitManager kitManager = new KitManager();
@@ -19,16 +25,22 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
     
     // UI Components
     private JComboBox<String> kitSelector;
-    private JButton[] padButtons = new JButton[9];
+    private boolean updatingKitSelector = false; // remplissage de la liste, pas un choix utilisateur
+    private PadButton[] padButtons = new PadButton[9];
     private JLabel currentKitLabel;
     
     // Sequencer UI Components
     private JButton playStopButton;
     private JButton clearButton;
+    private JButton bounceButton;
+    private JButton saveBundleButton;
     private JSpinner bpmSpinner;
     private JSpinner lengthSpinner;
     private JLabel currentStepLabel;
-    private JButton[][] stepButtons = new JButton[9][16]; // [pad][step]
+    private PatternGrid patternGrid;
+    // Dernier step joué, écrit par le thread de rendu et lu par le timer de l'EDT
+    private volatile int playedStep = -1;
+    private int displayedStep = -1;
     private JPanel sequencerPanel;
     
     // Mode toggle
@@ -41,6 +53,8 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         // Initialiser le séquenceur
         sequencer = new SequencerEngine(player);
         sequencer.setStepListener(this);
+        kitManager.getWaveforms().setListener(this);
+        kitManager.setWaveformsEnabled(true); // pads et grille les dessinent
 
         frame = new JFrame("WakoSound");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -57,15 +71,34 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         // Charger le kit par défaut
         loadCurrentKit();
         updateSequencerKit();
+
+        // Décoder les samples en arrière-plan : les pads s'allument au fur et à mesure.
+        // Seuls les kits utilisés restent chargés (voir unloadUnusedKits)
+        preloadCurrentKit();
+        // Sons ajoutés ou modifiés dans sounds/ pris en compte sans redémarrage
+        kitManager.startWatching(player.getCache(), this);
+        // Métadonnées des samples modifiés depuis le dernier lancement, à basse priorité
+        kitManager.refreshSampleIndex();
+
+        // Export des métriques audio si -Dsoundboard.metrics.file=... est défini
+        MetricsExporter.startFromSystemProperties(player);
+
+        // Tête de lecture rafraîchie à ~60 Hz depuis l'EDT
+        new Timer(16, e -> refreshPlayhead()).start();
+    }
+
+    private void refreshPlayhead() {
+        int step = playedStep;
+        if (step != displayedStep && step >= 0) {
+            displayedStep = step;
+            currentStepLabel.setText("Step: " + (step + 1));
+            patternGrid.setPlayhead(step);
+        }
     }
 
     // 🎨 Méthode pour rafraîchir toute la grille visuelle
     private void refreshStepGrid() {
-        for (int pad = 0; pad < 9; pad++) {
-            for (int step = 0; step < 16; step++) {
-                updateStepButton(pad, step);
-            }
-        }
+        patternGrid.patternChanged();
     }
 
     private void createTopPanel() {
@@ -86,15 +119,23 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         }
         
         kitSelector.addActionListener(e -> {
+            if (updatingKitSelector) return;
             String selectedKit = (String) kitSelector.getSelectedItem();
             if (selectedKit != null && kitManager.switchToKit(selectedKit)) {
                 loadCurrentKit();
+                preloadCurrentKit();
                 updateSequencerKit();
                 updateCurrentKitLabel();
+                unloadUnusedKits();
             }
         });
         
         topPanel.add(kitSelector);
+
+        saveBundleButton = DarkTheme.createStyledButton("Save Bundle");
+        saveBundleButton.setToolTipText("Save the current kit as kits/<name>.sbk");
+        saveBundleButton.addActionListener(e -> saveKitBundle());
+        topPanel.add(saveBundleButton);
         
         // Séparateur
         topPanel.add(new JSeparator(SwingConstants.VERTICAL));
@@ -134,7 +175,7 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         gridPanel.setPreferredSize(new Dimension(300, 300));
         
         for (int i = 0; i < 9; i++) {
-            JButton btn = new JButton();
+            PadButton btn = new PadButton(kitManager.getWaveforms());
             
             // Style des boutons
             btn.setFocusPainted(false);
@@ -177,13 +218,14 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         
         clearButton = DarkTheme.createStyledButton("Clear");
         clearButton.addActionListener(e -> {
-            System.out.println("Clear button clicked!");
             sequencer.clearPattern();
-            System.out.println("About to refresh grid...");
-            refreshStepGrid(); 
-            System.out.println("Grid refreshed!");
+            refreshStepGrid();
         });
         transportPanel.add(clearButton);
+
+        bounceButton = DarkTheme.createStyledButton("Bounce");
+        bounceButton.addActionListener(e -> bouncePattern());
+        transportPanel.add(bounceButton);
         
         // BPM Control
         transportPanel.add(new JLabel("BPM:") {{ setForeground(DarkTheme.FOREGROUND); }});
@@ -193,8 +235,11 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         
         // Length Control
         transportPanel.add(new JLabel("Steps:") {{ setForeground(DarkTheme.FOREGROUND); }});
-        lengthSpinner = new JSpinner(new SpinnerNumberModel(16, 1, 16, 1));
-        lengthSpinner.addChangeListener(e -> sequencer.setPatternLength((Integer) lengthSpinner.getValue()));
+        lengthSpinner = new JSpinner(new SpinnerNumberModel(16, 1, Pattern.MAX_LENGTH, 1));
+        lengthSpinner.addChangeListener(e -> {
+            sequencer.setPatternLength((Integer) lengthSpinner.getValue());
+            refreshStepGrid();
+        });
         transportPanel.add(lengthSpinner);
         
         // Current Step
@@ -213,53 +258,11 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
     }
 
     private void createStepGrid() {
-        JPanel gridPanel = new JPanel(new GridBagLayout());
-        gridPanel.setBackground(DarkTheme.BACKGROUND);
-        GridBagConstraints gbc = new GridBagConstraints();
-        
-        // Headers pour les steps
-        gbc.gridy = 0;
-        for (int step = 0; step < 16; step++) {
-            gbc.gridx = step + 1;
-            JLabel stepLabel = new JLabel(String.valueOf(step + 1));
-            stepLabel.setForeground(DarkTheme.FOREGROUND);
-            stepLabel.setHorizontalAlignment(JLabel.CENTER);
-            stepLabel.setPreferredSize(new Dimension(30, 20));
-            gridPanel.add(stepLabel, gbc);
-        }
-        
-        // Rows pour chaque pad
-        for (int pad = 0; pad < 9; pad++) {
-            gbc.gridy = pad + 1;
-            
-            // Label du pad
-            gbc.gridx = 0;
-            JLabel padLabel = new JLabel("Pad " + (pad + 1));
-            padLabel.setForeground(DarkTheme.FOREGROUND);
-            padLabel.setPreferredSize(new Dimension(60, 25));
-            gridPanel.add(padLabel, gbc);
-            
-            // Boutons steps
-            for (int step = 0; step < 16; step++) {
-                gbc.gridx = step + 1;
-                JButton stepBtn = new JButton();
-                stepBtn.setPreferredSize(new Dimension(25, 25));
-                stepBtn.setBackground(DarkTheme.BUTTON_BG.darker());
-                stepBtn.setFocusPainted(false);
-                stepBtn.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
-                
-                final int padIndex = pad;
-                final int stepIndex = step;
-                
-                stepBtn.addActionListener(e -> toggleStep(padIndex, stepIndex));
-                
-                stepButtons[pad][step] = stepBtn;
-                gridPanel.add(stepBtn, gbc);
-            }
-        }
+        patternGrid = new PatternGrid(sequencer, kitManager.getWaveforms());
         
-        JScrollPane scrollPane = new JScrollPane(gridPanel);
+        JScrollPane scrollPane = new JScrollPane(patternGrid);
         scrollPane.setBackground(DarkTheme.BACKGROUND);
+        scrollPane.getHorizontalScrollBar().setUnitIncrement(28);
         sequencerPanel.add(scrollPane, BorderLayout.CENTER);
     }
 
@@ -292,21 +295,6 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         frame.repaint();
     }
 
-    private void toggleStep(int padIndex, int stepIndex) {
-        sequencer.toggleStep(padIndex, stepIndex);
-        updateStepButton(padIndex, stepIndex);
-    }
-
-    private void updateStepButton(int padIndex, int stepIndex) {
-        if (stepButtons[padIndex][stepIndex] != null) {
-            boolean active = sequencer.getStep(padIndex, stepIndex);
-            System.out.println("Updating button [" + padIndex + "][" + stepIndex + "] to " + active);
-            stepButtons[padIndex][stepIndex].setBackground(
-                active ? Color.ORANGE : DarkTheme.BUTTON_BG.darker()
-            );
-        }
-    }
-
     private void togglePlayStop() {
         if (sequencer.isPlaying()) {
             sequencer.stop();
@@ -317,8 +305,69 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         }
     }
 
+    // 💾 Export du pattern courant en WAV (rendu offline, plus rapide que le temps réel)
+    private void bouncePattern() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File("bounce.wav"));
+        if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+
+        java.io.File output = chooser.getSelectedFile();
+        bounceButton.setEnabled(false);
+        new Thread(() -> {
+            String message;
+            try {
+                PatternBouncer.Result result = new PatternBouncer(player).bounce(sequencer, 1, true, output);
+                message = String.format("Bounced %.2fs of audio in %.3fs (x%.1f realtime)",
+                                        result.getAudioSeconds(), result.getRenderSeconds(),
+                                        result.getRealtimeFactor());
+            } catch (Exception ex) {
+                message = "Bounce failed: " + ex.getMessage();
+            }
+            String text = message;
+            SwingUtilities.invokeLater(() -> {
+                bounceButton.setEnabled(true);
+                JOptionPane.showMessageDialog(frame, text);
+            });
+        }, "pattern-bounce").start();
+    }
+
+    // 📦 Kit courant enregistré en bundle (samples décodés une fois, mappés aux lancements suivants)
+    private void saveKitBundle() {
+        SoundKit kit = kitManager.getCurrentKit();
+        if (kit == null) return;
+
+        saveBundleButton.setEnabled(false);
+        new Thread(() -> {
+            boolean saved = kitManager.saveKit(kit, player.getCache());
+            SwingUtilities.invokeLater(() -> {
+                saveBundleButton.setEnabled(true);
+                JOptionPane.showMessageDialog(frame, saved ? "Kit saved: " + kit.getName()
+                                                           : "Cannot save kit " + kit.getName());
+            });
+            if (saved) {
+                onKitChanged(kit.getName()); // kit et samples viennent désormais du bundle
+            }
+        }, "kit-bundle").start();
+    }
+
+    private void preloadCurrentKit() {
+        SoundKit currentKit = kitManager.getCurrentKit();
+        if (currentKit != null) {
+            kitManager.preloadKit(currentKit, player.getCache(), this);
+        }
+    }
+
+    // 🧊 Libère les kits qui ne sont plus ni sur les pads ni dans le séquenceur (l'ancien kit
+    // reste chargé jusqu'à la mesure où le séquenceur change de kit). Les voix en cours
+    // finissent de jouer avant que la mémoire ne soit rendue.
+    private void unloadUnusedKits() {
+        kitManager.unloadKitsExcept(Arrays.asList(kitManager.getCurrentKit(), sequencer.getCurrentKit(),
+                                                  sequencer.getPendingKit()), player.getCache());
+    }
+
+    // Pendant la lecture, le séquenceur change de kit à la mesure suivante une fois préchargé
     private void updateSequencerKit() {
-        sequencer.setCurrentKit(kitManager.getCurrentKit());
+        sequencer.switchKit(kitManager.getCurrentKit(), kitManager);
         updatePadLabels();
     }
 
@@ -331,23 +380,95 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         }
     }
 
-    // Implementation de StepListener
+    // Implementation de StepListener (thread de rendu : aucune allocation, l'EDT lit playedStep)
     @Override
     public void onStepChanged(int step) {
+        playedStep = step;
+    }
+
+    @Override
+    public void onKitSwitched(SoundKit kit) {
         SwingUtilities.invokeLater(() -> {
-            currentStepLabel.setText("Step: " + (step + 1));
-            
-            // Highlight current step
-            for (int pad = 0; pad < 9; pad++) {
-                for (int s = 0; s < 16; s++) {
-                    if (stepButtons[pad][s] != null) {
-                        Border border = (s == step) ? 
-                            BorderFactory.createLineBorder(Color.RED, 2) :
-                            BorderFactory.createLineBorder(Color.BLACK, 1);
-                        stepButtons[pad][s].setBorder(border);
-                    }
+            patternGrid.repaint(); // noms des pistes
+            unloadUnusedKits();
+        });
+    }
+
+    // Implementation de KitChangeListener (thread du watcher)
+    @Override
+    public void onKitChanged(String kitName) {
+        SwingUtilities.invokeLater(() -> {
+            refreshKitSelector();
+            // Kit courant rechargé ou supprimé : pads, séquenceur (à la mesure suivante) et label
+            loadCurrentKit();
+            SoundKit currentKit = kitManager.getCurrentKit();
+            if (currentKit != null && !kitManager.isLoaded(currentKit)) {
+                preloadCurrentKit();
+            }
+            updateSequencerKit();
+            updateCurrentKitLabel();
+            unloadUnusedKits();
+        });
+    }
+
+    // Thread du watcher : un pad dont le fichier manquait est rejoué par le séquenceur
+    @Override
+    public void onSampleChanged(String filePath) {
+        sequencer.sampleChanged(filePath);
+    }
+
+    private void refreshKitSelector() {
+        updatingKitSelector = true;
+        try {
+            kitSelector.removeAllItems();
+            for (String kitName : kitManager.getKitNames()) {
+                kitSelector.addItem(kitName);
+            }
+            SoundKit currentKit = kitManager.getCurrentKit();
+            if (currentKit != null) {
+                kitSelector.setSelectedItem(currentKit.getName());
+            }
+        } finally {
+            updatingKitSelector = false;
+        }
+    }
+
+    // Implementation de WaveformListener (thread de calcul des formes d'onde)
+    @Override
+    public void onWaveformReady(String filePath) {
+        SwingUtilities.invokeLater(() -> {
+            for (PadButton btn : padButtons) {
+                if (filePath.equals(btn.getFilePath())) {
+                    btn.repaint();
                 }
             }
+            patternGrid.waveformReady();
+        });
+    }
+
+    // Implementation de KitLoadListener
+    @Override
+    public void onKitLoaded(SoundKit kit) {
+        // Copies hors heap prêtes : le séquenceur lâche les samples décodés entre-temps
+        sequencer.refreshSamples(kit);
+    }
+
+    @Override
+    public void onPadLoaded(SoundKit kit, SoundPad pad, int loadedPads, int totalPads) {
+        SwingUtilities.invokeLater(() -> {
+            SoundKit currentKit = kitManager.getCurrentKit();
+            if (currentKit == null || !currentKit.equals(kit)) return;
+
+            int index = currentKit.getPads().indexOf(pad);
+            if (index >= 0 && index < padButtons.length) {
+                padButtons[index].setBackground(DarkTheme.BUTTON_BG);
+            }
+            if (loadedPads < totalPads) {
+                currentKitLabel.setText(String.format("Kit: %s | Loading %d/%d",
+                                                      kit.getName(), loadedPads, totalPads));
+            } else {
+                updateCurrentKitLabel();
+            }
         });
     }
 
@@ -362,15 +483,19 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         List<SoundPad> pads = currentKit.getPads();
         
         for (int i = 0; i < 9; i++) {
-            JButton btn = padButtons[i];
+            PadButton btn = padButtons[i];
             
             if (i < pads.size()) {
                 SoundPad pad = pads.get(i);
                 btn.setText(pad.getName());
+                btn.setFilePath(pad.getFilePath());
                 btn.setEnabled(true);
-                btn.setBackground(DarkTheme.BUTTON_BG);
+                // Pad encore en cours de décodage → grisé jusqu'à onPadLoaded
+                btn.setBackground(player.getCache().contains(pad.getFilePath()) ?
+                    DarkTheme.BUTTON_BG : DarkTheme.BUTTON_BG.darker());
             } else {
                 btn.setText("Empty");
+                btn.setFilePath(null);
                 btn.setEnabled(false);
                 btn.setBackground(DarkTheme.BUTTON_BG.darker());
             }
@@ -422,6 +547,7 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
     }
 
     private void playPad(int index, JButton btn, Color defaultColor, boolean fromMouse) {
+        long pressedNanos = System.nanoTime();
         SoundKit currentKit = kitManager.getCurrentKit();
         if (currentKit == null) return;
         
@@ -431,7 +557,7 @@ public class SoundBoardUI implements SequencerEngine.StepListener {
         SoundPad pad = pads.get(index);
         if (pad == null) return;
         
-        player.play(pad.getFilePath());
+        player.play(pad.getFilePath(), pad.getVolume(), pressedNanos);
         flashButton(btn, defaultColor, fromMouse);
     }
 
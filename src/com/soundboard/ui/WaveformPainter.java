@@ -0,0 +1,35 @@
+package com.soundboard.ui;
+
+import com.soundboard.audio.WaveformPeaks;
+import java.awt.*;
+
+// Dessin d'une forme d'onde depuis sa pyramide de crêtes : un trait vertical par colonne de pixels,
+// O(largeur) quel que soit la durée du sample ou le zoom. Tampons réutilisés (EDT uniquement).
+final class WaveformPainter {
+    private float[] mins = new float[0];
+    private float[] maxs = new float[0];
+
+    // Tout le sample dans le rectangle
+    void paint(Graphics2D g2, WaveformPeaks peaks, int x, int y, int width, int height) {
+        paint(g2, peaks, 0, peaks.getFrameLength(), x, y, width, height);
+    }
+
+    // Frames [startFrame, endFrame) dans le rectangle (zoom, défilement)
+    void paint(Graphics2D g2, WaveformPeaks peaks, long startFrame, long endFrame,
+               int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        if (mins.length < width) {
+            mins = new float[width];
+            maxs = new float[width];
+        }
+        peaks.render(startFrame, endFrame, width, mins, maxs);
+
+        float half = (height - 1) / 2f;
+        int center = y + Math.round(half);
+        for (int p = 0; p < width; p++) {
+            int top = center - Math.round(maxs[p] * half);
+            int bottom = center - Math.round(mins[p] * half);
+            g2.drawLine(x + p, top, x + p, bottom);
+        }
+    }
+}